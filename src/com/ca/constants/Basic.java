@@ -45,12 +45,40 @@ public final class Basic {
     public static boolean BILLI_FEATURE = false;
 
     /**
-     * The whole game is synchronized with this FPS count. <br>
-     * WARNING: changing this number will speed up or slow down the whole game.
+     * The maximum number of frames drawn each second.
      */
     public static int GAME_FPS = 60;
+
+    /**
+     * The whole game is simulated with this number of ticks each second. <br>
+     * WARNING: changing this number will speed up or slow down the whole game.
+     */
+    public static final int GAME_TPS = 60;
+
+    /**
+     * How many times each second the keyboard shortcuts (screenshots, inventory...) are read.
+     */
+    public static final int INPUT_TPS = 120;
+
+    /**
+     * The tick rate the speeds of the game are tuned for (the character's speed statistic, {@link Basic#KNOCKBACK_SPEED}
+     * and the knockback duration). They are scaled by the duration of a tick, so the game plays the same with any
+     * {@link Basic#GAME_TPS}.
+     */
+    public static final int SPEED_REFERENCE_TPS = 60;
     public static final boolean POST_RENDER = true;
 
+    /**
+     * If {@code true} the game thread draws the frames itself on a page flipped buffer (active rendering), otherwise
+     * it asks Swing to repaint the game panel (passive rendering).
+     */
+    public static final boolean ACTIVE_RENDERING = true;
+
+    /**
+     * If {@code true} the static blocks are drawn from pre-rendered chunk images, see {@link com.ca.maps.ChunkCache}.
+     */
+    public static final boolean CACHE_STATIC_BLOCKS = true;
+
     /**
      * Debug mode settings
      */
@@ -58,6 +58,14 @@ public final class Position {
         return this.x == position.x && this.y == position.y;
     }
 
+    /**
+     * @return the hash code of the coordinates, consistent with {@link Position#equals(Object)}.
+     */
+    @Override
+    public int hashCode() {
+        return 31 * x + y;
+    }
+
     @Override
     public String toString() {
         return "[%d, %d]".formatted(x, y);
@@ -16,11 +16,8 @@
 package com.ca.entities;
 
 import com.ca.constants.Position;
-import com.ca.entities.characters.Camera;
-import com.ca.events.GameMouseHandler;
-import com.ca.events.GameWindowHandler;
-import com.ca.game.CameraManager;
 import com.ca.game.FootStepManager;
+import com.ca.game.Viewport;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
@@ -64,10 +61,8 @@ public record FootStep(BufferedImage footStep, Position position, long liveTime)
      * @param g the graphics where t draw the footstep on.
      */
     public void render(Graphics g) {
-        Camera c = CameraManager.get(Camera.MAIN_CAMERA);
-
-        g.drawImage(footStep, position.x - c.getPosition().x + (GameWindowHandler.getWindowWidth() / (int) (2 * GameMouseHandler.defaultScale)) - footStep.getWidth() / 2,
-                position.y - c.getPosition().y + (GameWindowHandler.getWindowHeight() / (int) (2 * GameMouseHandler.defaultScale)) - footStep.getHeight() / 2,
+        g.drawImage(footStep, position.x + Viewport.getOriginX() - footStep.getWidth() / 2,
+                position.y + Viewport.getOriginY() - footStep.getHeight() / 2,
                 footStep.getWidth(), footStep.getHeight(), null);
     }
 }
@@ -15,6 +15,8 @@
  */
 package com.ca.entities.characters;
 
+import com.ca.game.GameLoop;
+
 import java.awt.Rectangle;
 
 /**
@@ -31,6 +33,12 @@ public class Camera {
 
     private com.ca.constants.Position position;
 
+    /**
+     * The camera's position at the beginning of the current simulation tick.
+     */
+    private final com.ca.constants.Position previous = new com.ca.constants.Position();
+    private boolean saved = false;
+
     /**
      * Camera name, used to recognize the camera for the {@link com.ca.game.CameraManager}.
      */
@@ -81,6 +89,51 @@ public class Camera {
         return position;
     }
 
+    /**
+     * Stores the current position as the previous one, see {@link com.ca.entities.states.EntityState#savePosition()}.
+     */
+    public void savePosition() {
+        if (position != null) {
+            previous.set(position.x, position.y);
+            saved = true;
+        }
+    }
+
+    /**
+     * Copies the position and the subject of the given camera, used by the camera published by
+     * {@link com.ca.game.WorldSnapshot}. The copy has its own position object.
+     * @param camera the camera to copy.
+     */
+    public void copy(Camera camera) {
+
+        if (camera.position == null) {
+            return;
+        }
+
+        if (position == null) {
+            position = new com.ca.constants.Position();
+        }
+
+        position.set(camera.position.x, camera.position.y);
+        previous.set(camera.previous.x, camera.previous.y);
+        saved = camera.saved;
+        subjectSize = camera.subjectSize;
+    }
+
+    /**
+     * @return the camera's x coordinate in the current frame, between the previous and the current tick.
+     */
+    public int getRenderX() {
+        return saved ? GameLoop.interpolate(previous.x, position.x) : position.x;
+    }
+
+    /**
+     * @return the camera's y coordinate in the current frame, between the previous and the current tick.
+     */
+    public int getRenderY() {
+        return saved ? GameLoop.interpolate(previous.y, position.y) : position.y;
+    }
+
     /**
      * @return the camera name.
      */
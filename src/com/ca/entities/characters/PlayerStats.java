@@ -59,14 +59,15 @@ public class PlayerStats {
      */
     public double getMultiplier(String key) {
 
-        Optional<Statistic> statistic = statistics.stream().filter(stat -> stat.name.equals(key)).findFirst();
-
-        if (statistic.isEmpty()) {
-            Logger.log(Logger.WARNING, "The requested multiplier is not valid: " + key);
-            return Basic.STATS_DEFAULT_MULTIPLIER;
+        // Plain loop, this is called on every move
+        for(Statistic stat : statistics) {
+            if (stat.name.equals(key)) {
+                return stat.multiplier;
+            }
         }
 
-        return statistic.get().multiplier;
+        Logger.log(Logger.WARNING, "The requested multiplier is not valid: " + key);
+        return Basic.STATS_DEFAULT_MULTIPLIER;
     }
 
     /**
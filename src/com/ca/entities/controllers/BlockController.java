@@ -25,17 +25,13 @@ import com.ca.entities.states.BlockState;
 import com.ca.entities.views.BlockView;
 import com.ca.errors.Logger;
 import com.ca.game.BlockManager;
-import com.ca.maps.GameScene;
 import com.ca.maps.Scene;
 import com.ca.resources.Utility;
-import com.ca.resources.animations.BlockAnimation;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
 
 /**
  * This controller merges the model and the view of the game's Block component.
@@ -55,12 +51,8 @@ public class BlockController {
     public BlockController(BlockManager.BlockData data) {
         this.model = new BlockModel(data.id(), data.effects());
 
-        List<BlockAnimation> blockAnimations = new ArrayList<>();
-        for(BlockAnimation aTemp : data.animation()) {
-            blockAnimations.add(new BlockAnimation(aTemp));
-        }
-
-        this.view = new BlockView(data.id(), blockAnimations, data.overlays(), data.connectsWith(), data.printOnBlock());
+        // The animations don't keep any time, so all the blocks of the same type share them
+        this.view = new BlockView(data.id(), Arrays.asList(data.animation()), data.overlays(), data.connectsWith(), data.printOnBlock());
 
         if (data.hitBox() != null) {
             this.hitBox = new HitBox(getPosition(), view.getFrameWidth(), view.getFrameHeight(), data.hitBox());
@@ -98,6 +90,13 @@ public class BlockController {
         view.activateOverlay(direction, overlay);
     }
 
+    /**
+     * Removes all the overlays painted on the block.
+     */
+    public void clearOverlays() {
+        view.clearOverlays();
+    }
+
     /**
      * @return a string array containing the list of blocks with whom the current block can connect to.
      */
@@ -112,23 +111,6 @@ public class BlockController {
         return view.printOnBlock();
     }
 
-    /**
-     * @return {@code true} if the block has already been processed by the {@link com.ca.gui.PostRenderer#apply(GameScene)} method,
-     * otherwise {@code false}.
-     */
-    public boolean isPostRendered() {
-        return view.isPostRendered();
-    }
-
-    /**
-     * Sets the post render status of the current block. If the current block has already been analyzed then the {@link com.ca.gui.PostRenderer}
-     * can simply skip this.
-     * @param isPostRendered the new post render status.
-     */
-    public void isPostRendered(boolean isPostRendered) {
-        view.isPostRendered(isPostRendered);
-    }
-
     /**
      * @return {@code true} if the block has any overlays, otherwise {@code false}.
      */
@@ -226,6 +208,24 @@ public class BlockController {
         model.setPosition(x * Basic.DEFAULT_BLOCK_WIDTH, y * Basic.DEFAULT_BLOCK_HEIGHT);
     }
 
+    /**
+     * @return {@code true} if the block never changes its look nor its print priority, meaning it has no hitbox and
+     * its texture is not animated. Static blocks can be pre-rendered, see {@link com.ca.maps.ChunkCache}.
+     */
+    public boolean isStatic() {
+        return hitBox == null && !view.isAnimated();
+    }
+
+    /**
+     * Draws the block at the given coordinates, without moving its animation forward.
+     * @param g the graphics to draw on.
+     * @param x the x coordinate where to draw the block.
+     * @param y the y coordinate where to draw the block.
+     */
+    public void paint(Graphics g, int x, int y) {
+        view.paint(g, x, y);
+    }
+
     /**
      * Renders the block to screen with the given print priority.
      * @param g the graphics to draw on.
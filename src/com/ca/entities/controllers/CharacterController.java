@@ -19,7 +19,6 @@ import com.ca.constants.*;
 import com.ca.entities.DirectionalHitBox;
 import com.ca.entities.HitBox;
 import com.ca.entities.Inventory;
-import com.ca.entities.characters.Camera;
 import com.ca.entities.characters.PlayerStats;
 import com.ca.entities.models.CharacterModel;
 import com.ca.entities.models.ItemModel;
@@ -27,17 +26,18 @@ import com.ca.entities.states.CharacterState;
 import com.ca.entities.views.CharacterView;
 import com.ca.errors.general.InputNotValid;
 import com.ca.errors.resources.SpritesheetOutOfBounds;
-import com.ca.events.GameMouseHandler;
-import com.ca.events.GameWindowHandler;
 import com.ca.events.animations.AnimationListener;
-import com.ca.game.CameraManager;
+import com.ca.game.Viewport;
 import com.ca.game.CollisionManager;
 import com.ca.game.EntityManager;
 import com.ca.game.FootStepManager;
+import com.ca.game.Sweep;
+import com.ca.game.WorldSnapshot;
 import com.ca.gui.Decorator;
 import com.ca.resources.MetadataDeserializer;
 import com.ca.resources.Utility;
 import com.ca.resources.animations.Action;
+import com.ca.resources.animations.AnimationClock;
 import com.ca.resources.animations.template.Animation;
 
 import java.awt.*;
@@ -64,7 +64,17 @@ public class CharacterController implements AnimationListener {
     private Direction knockbackDirection;
 
     /**
-     * Used to identify all entities. All clones made with the copy constructors have the same UUID.
+     * Reused by every move to store the result of the collision sweep.
+     */
+    private final Sweep sweep = new Sweep();
+
+    /**
+     * The tick the message box has been opened, {@code -1} if it is closed.
+     */
+    private long talkingSince = -1;
+
+    /**
+     * Used to identify all entities, each character gets a new random UUID when it is created.
      */
     private final UUID uniqueID;
 
@@ -89,37 +99,15 @@ public class CharacterController implements AnimationListener {
         this.addAnimationListener(this,Action.Walking);
     }
 
-    /**
-     * Copy constructor.
-     * @param controller the entity's controller to copy.
-     */
-    public CharacterController(CharacterController controller) {
-        this.model = new CharacterModel(controller.model);
-        this.view = new CharacterView(controller.view);
-
-        this.view.setDefaultTexture(controller.view.getDefaultTexture());
-
-        this.hitBox = new HitBox(model.getPosition(), view.getFrameWidth(), view.getFrameHeight(), controller.hitBox.getOffsets());
-        this.interactionsHitBox = new DirectionalHitBox(model.getPosition(), view.getFrameWidth(), view.getFrameHeight(), controller.interactionsHitBox.getOffsets(), getDirection());
-
-        this.uniqueID = controller.uniqueID;
-
-        this.setPosition(controller.getPosition().x, controller.getPosition().y);
-        this.addAnimationListener(this,Action.Walking);
-        this.addAnimationListener(this,Action.Walking);
-    }
-
     /**
      * Moves the player in a certain direction.
      * @param direction the direction to move the entity to.
      */
     public void move(Direction direction) {
 
-        CharacterController clone = new CharacterController(this);
-
         boolean isRunning = model.getStatistics().getMultiplier("speed") != Basic.STATS_DEFAULT_MULTIPLIER;
 
-        clone.model.move(direction, isRunning);
+        double speed = model.getSpeed();
 
         setDirection(direction);
 
@@ -137,13 +125,29 @@ public class CharacterController implements AnimationListener {
         // If the speed multiplier is not the default one it means it's running
         getStateManager().setType(isRunning ? Action.Running : Action.Walking);
 
-        // Checks if the move is valid, if it is it moves the model
-        if (CollisionManager.blocksInteraction(clone) || CollisionManager.entitiesInteraction(clone)) {
+        // Slow moves cover less than a pixel in some ticks
+        int dx = model.stepX(direction, speed);
+        int dy = model.stepY(direction, speed);
+
+        if (dx == 0 && dy == 0) {
             return;
         }
 
-        // Moves the entity
-        model.move(direction, isRunning);
+        // If something is in the way the entity slides up to the contact point
+        if (CollisionManager.sweep(this, dx, dy, sweep).isHit()) {
+            model.resetRemainder();
+
+            if (sweep.getTravelX() == 0 && sweep.getTravelY() == 0) {
+                return;
+            }
+
+            setPosition(getPosition().x + sweep.getTravelX(), getPosition().y + sweep.getTravelY());
+        }
+        else {
+            // Moves the entity
+            model.move(dx, dy, isRunning);
+            EntityManager.updatePosition(this);
+        }
 
         FootStepManager.add(new Position(getStateManager().getPosition().x, getStateManager().getPosition().y + 19));
     }
@@ -157,12 +161,14 @@ public class CharacterController implements AnimationListener {
     }
 
     public void doKnockback() {
-        CharacterController clone = new CharacterController(this);
+        int dx = model.stepX(knockbackDirection, Basic.KNOCKBACK_SPEED);
+        int dy = model.stepY(knockbackDirection, Basic.KNOCKBACK_SPEED);
 
-        clone.model.pushBack(knockbackDirection, Basic.KNOCKBACK_SPEED);
+        // If something is in the way the entity slides up to the contact point and the knockback ends
+        if (CollisionManager.sweep(this, dx, dy, sweep).isHit()) {
+            model.resetRemainder();
+            setPosition(getPosition().x + sweep.getTravelX(), getPosition().y + sweep.getTravelY());
 
-        // Checks if the move is valid, if it is it moves the model
-        if (CollisionManager.blocksInteraction(clone) || CollisionManager.entitiesInteraction(clone)) {
             model.getStatistics().set("knockback", 0);
             model.getState().setType(Action.Idling);
             return;
@@ -179,8 +185,11 @@ public class CharacterController implements AnimationListener {
 
 
 
-        model.pushBack(knockbackDirection, Basic.KNOCKBACK_SPEED);
-        model.getStatistics().set("knockback", (model.getStatistics().get("knockback").getCurrentValue() - 1));
+        model.pushBack(dx, dy);
+        EntityManager.updatePosition(this);
+
+        // The knockback lasts the same time at any tick rate
+        model.getStatistics().set("knockback", Math.max(0, model.getStatistics().get("knockback").getCurrentValue() - CharacterModel.getTickDuration()));
 
         if(model.getStatistics().get("knockback").getCurrentValue() == 0) {
             model.getState().setType(Action.Idling);
@@ -192,12 +201,14 @@ public class CharacterController implements AnimationListener {
      * Versione da usare solo nelle Basic.BILLI_FEATURE
      */
     public void doKnockback(Direction direction) {
-        CharacterController clone = new CharacterController(this);
+        int dx = model.stepX(knockbackDirection, Basic.KNOCKBACK_SPEED);
+        int dy = model.stepY(knockbackDirection, Basic.KNOCKBACK_SPEED);
 
-        clone.model.pushBack(knockbackDirection, Basic.KNOCKBACK_SPEED);
+        // If something is in the way the entity slides up to the contact point and the knockback ends
+        if (CollisionManager.sweep(this, dx, dy, sweep).isHit()) {
+            model.resetRemainder();
+            setPosition(getPosition().x + sweep.getTravelX(), getPosition().y + sweep.getTravelY());
 
-        // Checks if the move is valid, if it is it moves the model
-        if (CollisionManager.blocksInteraction(clone) || CollisionManager.entitiesInteraction(clone)) {
             model.getStatistics().set("knockback", 0);
             model.getState().setType(Action.Idling);
             return;
@@ -212,8 +223,11 @@ public class CharacterController implements AnimationListener {
             }
         }
 
-        model.pushBack(knockbackDirection, Basic.KNOCKBACK_SPEED);
-        model.getStatistics().set("knockback", (model.getStatistics().get("knockback").getCurrentValue() - 1));
+        model.pushBack(dx, dy);
+        EntityManager.updatePosition(this);
+
+        // The knockback lasts the same time at any tick rate
+        model.getStatistics().set("knockback", Math.max(0, model.getStatistics().get("knockback").getCurrentValue() - CharacterModel.getTickDuration()));
 
         if(model.getStatistics().get("knockback").getCurrentValue() == 0) {
             model.getState().setType(Action.Idling);
@@ -224,7 +238,7 @@ public class CharacterController implements AnimationListener {
      * Interacts with the given item on the ground, if there are any.
      */
     public void interact() {
-        List<ItemController> items  = CollisionManager.checkNearbyIntersectionItem(interactionsHitBox.toHitBox(), interactionsHitBox.getPosition());
+        List<ItemController> items  = CollisionManager.checkNearbyIntersectionItem(interactionsHitBox.toHitBox());
 
         // If there are items nearby
         if (items.size() > 0) {
@@ -386,6 +400,8 @@ public class CharacterController implements AnimationListener {
     public void setPosition(int x, int y) {
         model.getPosition().x = x;
         model.getPosition().y = y;
+
+        EntityManager.updatePosition(this);
     }
 
     /**
@@ -393,8 +409,7 @@ public class CharacterController implements AnimationListener {
      * @param pos the new entity's position.
      */
     public void setPosition(Position pos) {
-        model.getPosition().x = pos.x;
-        model.getPosition().y = pos.y;
+        setPosition(pos.x, pos.y);
     }
 
     public void setDirection(Direction d) {
@@ -436,9 +451,10 @@ public class CharacterController implements AnimationListener {
     /**
      * Updates all the entities print priority based on the {@link Basic#SUBJECT} position. If the position is higher in the y-axis it means
      * that graphically the character is located lower than the subject, therefore his print priority has to be higher. However, if the character
-     * is located higher than the subject, it will have a lower print priority.
+     * is located higher than the subject, it will have a lower print priority. <br>
+     * This is called once per tick, when the character is published by the {@link com.ca.game.WorldSnapshot}.
      */
-    private void updatePrintPriority() {
+    public void updatePrintPriority() {
         // handles the print priority based on the entity position
         CharacterController subj = EntityManager.subject;
 
@@ -454,49 +470,104 @@ public class CharacterController implements AnimationListener {
     }
 
     /**
-     * It accesses the View to render the entity.
-     * @param g the graphics to draw the entity on.
+     * Restarts the animation of the character when its action or direction changed during the tick, or when it has
+     * been played entirely, notifying its listeners. The animation of the item in use follows the character. This is
+     * called by the simulation once per tick, after the character has moved.
+     */
+    public void updateAnimation() {
+        model.getState().settleAnimation();
+
+        if (inventory.size() > 0 && inventory.getItemInUse() != null) {
+            inventory.getItemInUse().getState().settleAnimation();
+        }
+
+        view.updateAnimation(model.getState());
+    }
+
+    /**
+     * Updates the tick the character started talking, called by the {@link com.ca.game.WorldSnapshot} once per tick.
+     * @return the tick the message box has been opened, {@code -1} if the character is not talking.
      */
-    public void render(java.awt.Graphics g) {
+    public long updateTalking() {
 
-        view.render(getStateManager(), g);
+        if (!isTalking()) {
+            talkingSince = -1;
+        }
+        else if (talkingSince < 0) {
+            talkingSince = AnimationClock.getTick();
+        }
 
-        if(!this.equals(EntityManager.subject)) {
-            if (CollisionManager.intersect(hitBox, EntityManager.subject.getInteractionsHitBox())) {
-                view.drawMsgBox(getStateManager(), g);
-            }
-            else {
-                view.resetMsgBox();
-            }
+        return talkingSince;
+    }
+
+    /**
+     * Checks if the subject is close enough to this character to read its message box.
+     * @return {@code true} if the message box has to be shown, otherwise {@code false}.
+     */
+    public boolean isTalking() {
+
+        if (this.equals(EntityManager.subject)) {
+            return false;
         }
 
-        updatePrintPriority();
+        // The broad phase skips the far characters without building the interaction hitbox
+        return CollisionManager.mayTouch(this, EntityManager.subject) &&
+                CollisionManager.intersect(hitBox, EntityManager.subject.getInteractionsHitBox());
+    }
+
+    /**
+     * Copies the character's hitboxes in world coordinates, they are drawn by the debug layers.
+     * @param hitBox where to copy the hitbox.
+     * @param interactions where to copy the interactions hitbox.
+     */
+    public void copyHitBoxes(Rectangle hitBox, Rectangle interactions) {
+        hitBox.setBounds(this.hitBox.getX(), this.hitBox.getY(), this.hitBox.getWidth(), this.hitBox.getHeight());
+        interactions.setBounds(interactionsHitBox.getX(), interactionsHitBox.getY(), interactionsHitBox.getWidth(),
+                interactionsHitBox.getHeight());
+    }
+
+    /**
+     * It accesses the View to render the entity. The entity is drawn from the copy published by the
+     * {@link WorldSnapshot}, not from its current state.
+     * @param g the graphics to draw the entity on.
+     * @param body the published copy of the entity.
+     */
+    public void render(java.awt.Graphics g, WorldSnapshot.Body body) {
+
+        CharacterState state = (CharacterState) body.getState();
+
+        view.render(state, g);
+
+        // The subject never talks, see isTalking()
+        if(body.isTalking()) {
+            view.drawMsgBox(state, g, body.getTalkingSince());
+        }
 
         // Draws this' character ign
-        Decorator.drawIGN(g, Color.black, this, true);
+        Decorator.drawIGN(g, Color.black, body.getName(), state, getWidth(), getHeight(), true);
 
         // Handles all the debug layers of the character
         if (Basic.DEBUG_MODE) {
             if (Basic.DEBUG_RENDER_TEXTURE) {
-                Position rp = Utility.getEntityScreenCoords(getStateManager());
+                Position rp = Utility.getEntityScreenCoords(state);
 
                 g.setColor(Basic.DEBUG_TEXTURE_COLOR);
                 g.drawRect(rp.x, rp.y, view.getFrameWidth(), view.getFrameHeight());
             }
 
             if (Basic.DEBUG_RENDER_HITBOX) {
-                Position hp = Utility.getHitBoxScreenCoords(hitBox);
+                Rectangle hb = body.getHitBox();
 
                 g.setColor(Basic.DEBUG_HITBOX_COLOR);
-                g.drawRect(hp.x, hp.y, hitBox.getWidth(), hitBox.getHeight());
+                g.drawRect(hb.x + Viewport.getOffsetX(), hb.y + Viewport.getOffsetY(), hb.width, hb.height);
             }
 
             if (Basic.DEBUG_RENDER_INTERACT) {
-                Camera c = CameraManager.get(Camera.MAIN_CAMERA);
+                Rectangle ib = body.getRange();
 
                 g.setColor(Color.yellow);
-                g.drawRect(interactionsHitBox.getX() - c.getPosition().x + GameWindowHandler.getWindowWidth() / (int)(2 * GameMouseHandler.defaultScale) - (view.getFrameWidth() / 2),
-                        interactionsHitBox.getY() - c.getPosition().y + GameWindowHandler.getWindowHeight() / (int)(2 * GameMouseHandler.defaultScale) - (view.getFrameHeight() / 2), interactionsHitBox.getWidth(), interactionsHitBox.getHeight());
+                g.drawRect(ib.x + Viewport.getOriginX() - (view.getFrameWidth() / 2),
+                        ib.y + Viewport.getOriginY() - (view.getFrameHeight() / 2), ib.width, ib.height);
 
             }
         }
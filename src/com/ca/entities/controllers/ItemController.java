@@ -23,10 +23,14 @@ import com.ca.entities.DirectionalHitBox;
 import com.ca.entities.HitBox;
 import com.ca.entities.models.ItemModel;
 import com.ca.entities.states.EntityState;
+import com.ca.entities.states.ItemState;
 import com.ca.entities.views.ItemView;
 import com.ca.errors.Logger;
 import com.ca.game.CollisionManager;
 import com.ca.game.EntityManager;
+import com.ca.game.ItemManager;
+import com.ca.game.Viewport;
+import com.ca.game.WorldSnapshot;
 import com.ca.maps.Scene;
 import com.ca.resources.MetadataDeserializer;
 import com.ca.resources.Utility;
@@ -53,6 +57,11 @@ public class ItemController {
     private final HitBox hitBox;
     private final DirectionalHitBox actionHitBox;
 
+    /**
+     * The character holding the item, {@code null} if the item is on the ground.
+     */
+    private CharacterController owner;
+
     public ItemController(Assets.Info info) {
         this.model = new ItemModel(info);
         this.view = new ItemView(info);
@@ -81,18 +90,17 @@ public class ItemController {
      * A target entity uses the current item.
      */
     public void use() {
-        List<CharacterController> character = EntityManager.getNearbyCharacter(getPosition());
+        List<CharacterController> character = owner != null ?
+                CollisionManager.checkIntersectionCharacter(owner, actionHitBox.toHitBox()) :
+                CollisionManager.checkIntersectionCharacter(actionHitBox.toHitBox());
 
         for(CharacterController ch : character) {
-            if (CollisionManager.intersect(ch.getHitBox(), actionHitBox.toHitBox())) {
-
-                if(!ch.equals(EntityManager.subject) || Basic.BILLI_FEATURE) {
-                    double dmg = model.getState().getStatistics().get("damage");
-                    double knc = model.getState().getStatistics().get("knockback");
+            if(!ch.equals(EntityManager.subject) || Basic.BILLI_FEATURE) {
+                double dmg = model.getState().getStatistics().get("damage");
+                double knc = model.getState().getStatistics().get("knockback");
 
-                    ch.doDamage(model.getState().getDirection(), dmg, knc);
-                    ch.startKnockback(knc, EntityManager.subject.getDirection());
-                }
+                ch.doDamage(model.getState().getDirection(), dmg, knc);
+                ch.startKnockback(knc, EntityManager.subject.getDirection());
             }
         }
     }
@@ -107,6 +115,8 @@ public class ItemController {
         final int radius = 15;
 
         model.setPosition(x + r.nextInt(radius), y + r.nextInt(radius));
+
+        ItemManager.updatePosition(this);
     }
 
     /**
@@ -133,6 +143,8 @@ public class ItemController {
      */
     public void setPosition(Position p) {
         model.setPosition(p);
+
+        ItemManager.updatePosition(this);
     }
 
     /**
@@ -144,6 +156,13 @@ public class ItemController {
         actionHitBox.setDirection(d);
     }
 
+    /**
+     * @return {@code true} if the item is equipped by a character, otherwise {@code false}.
+     */
+    public boolean isEquipped() {
+        return model.getState().isEquipped();
+    }
+
     /**
      * Flag indicating if the item is currently in use.
      * @param inUse set to {@code true} if the item is being used, otherwise {@code false}.
@@ -206,6 +225,9 @@ public class ItemController {
         setAction(ch.getAction());
 
         model.getState().equip();
+
+        owner = ch;
+        ItemManager.pickUp(this);
     }
 
     /**
@@ -222,12 +244,16 @@ public class ItemController {
         this.setDirection(Basic.DEFAULT_ITEM_DIRECTION);
 
         this.model.getState().unEquip();
+
+        owner = null;
+        ItemManager.drop(this);
     }
 
     /**
-     * Updates the item's print priority based on its state (equipped or not) and on its direction.
+     * Updates the item's print priority based on its state (equipped or not) and on its direction. This is called
+     * once per tick, when the item is published by the {@link com.ca.game.WorldSnapshot}.
      */
-    private void updatePrintPriority() {
+    public void updatePrintPriority() {
 
         CharacterController ctrl = EntityManager.subject;
 
@@ -242,41 +268,60 @@ public class ItemController {
     }
 
     /**
-     * Renders the graphics to screen.
+     * Copies the item's hitboxes in world coordinates, they are drawn by the debug layers.
+     * @param hitBox where to copy the hitbox, it is left empty if the item doesn't have one.
+     * @param actionRange where to copy the action hitbox.
+     */
+    public void copyHitBoxes(Rectangle hitBox, Rectangle actionRange) {
+
+        if (this.hitBox != null) {
+            hitBox.setBounds(this.hitBox.getX(), this.hitBox.getY(), this.hitBox.getWidth(), this.hitBox.getHeight());
+        }
+        else {
+            hitBox.setBounds(0, 0, 0, 0);
+        }
+
+        HitBox range = actionHitBox.toHitBox();
+
+        actionRange.setBounds(range.getX(), range.getY(), actionHitBox.getWidth(), actionHitBox.getHeight());
+    }
+
+    /**
+     * Renders the graphics to screen, from the copy of the item published by the {@link WorldSnapshot}.
      * @param g the graphics to draw on.
+     * @param body the published copy of the item.
      */
-    public void render(Graphics g) {
+    public void render(Graphics g, WorldSnapshot.Body body) {
 
-        view.render(getState(), g);
+        ItemState state = (ItemState) body.getState();
 
-        updatePrintPriority();
+        view.render(state, g);
 
         if (Basic.DEBUG_MODE) {
             if (Basic.DEBUG_RENDER_TEXTURE) {
-                Position rp = Utility.getEntityScreenCoords(getState());
+                Position rp = Utility.getEntityScreenCoords(state);
 
                 g.setColor(Basic.DEBUG_TEXTURE_COLOR);
                 g.drawRect(rp.x, rp.y, view.getFrameWidth(), view.getFrameHeight());
             }
 
-            if (hitBox == null) {
-                Logger.log(Logger.WARNING, "The object " + this.model.getIGN() + " doesn't have an hitbox.");
-            }
+            Rectangle hb = body.getHitBox();
 
-            if (Basic.DEBUG_RENDER_HITBOX && hitBox != null) {
-                Position hp = Utility.getHitBoxScreenCoords(hitBox);
+            if (hb.isEmpty()) {
+                Logger.log(Logger.WARNING, "The object " + body.getName() + " doesn't have an hitbox.");
+            }
 
+            if (Basic.DEBUG_RENDER_HITBOX && !hb.isEmpty()) {
                 g.setColor(Basic.DEBUG_HITBOX_COLOR);
-                g.drawRect(hp.x, hp.y, hitBox.getWidth(), hitBox.getHeight());
+                g.drawRect(hb.x + Viewport.getOffsetX(), hb.y + Viewport.getOffsetY(), hb.width, hb.height);
             }
 
             if (Basic.DEBUG_RENDER_ACTION_RANGE) {
-                Position ahp = Utility.getHitBoxScreenCoords(actionHitBox.toHitBox());
+                Rectangle ab = body.getRange();
 
                 g.setColor(Basic.DEBUG_ACTION_RANGE_COLOR);
-                g.drawRect(ahp.x, ahp.y, actionHitBox.getWidth(), actionHitBox.getHeight());
+                g.drawRect(ab.x + Viewport.getOffsetX(), ab.y + Viewport.getOffsetY(), ab.width, ab.height);
             }
         }
     }
 }
-
@@ -39,6 +39,13 @@ public class CharacterModel extends EntityModel {
      */
     private final PlayerStats statistics;
 
+    /**
+     * The fractions of pixel covered by the last moves and not applied to the position yet. The position is kept in
+     * whole pixels for the hitboxes and the rendering, the fractions are added to the next moves.
+     */
+    private double remainderX = 0;
+    private double remainderY = 0;
+
     /**
      * Basic constructor.
      * @param ign the in game name of the character
@@ -72,37 +79,139 @@ public class CharacterModel extends EntityModel {
     }
 
     /**
-     * Moves the entity in a particular direction.
-     * @param direction the move direction
+     * Moves the entity by the given offset, computed with {@link CharacterModel#stepX(Direction, double)} and
+     * {@link CharacterModel#stepY(Direction, double)}.
+     * @param dx the x offset of the move.
+     * @param dy the y offset of the move.
+     * @param running {@code true} if the entity is running.
      */
-    public void move(Direction direction, boolean running) {
-
+    public void move(int dx, int dy, boolean running) {
 
         // If the speed multiplier is not the default one it means it's running
         state.setType(running ? Action.Running : Action.Walking);
 
-        double speed = statistics.get("speed").getCurrentValue() * statistics.get("speed").getMultiplier();
-
         // Moves the player in the current direction
-        switch(direction) {
-            case UP -> position.y -= (int)speed;
-            case DOWN -> position.y += (int)speed;
-            case LEFT -> position.x -= (int)speed;
-            case RIGHT -> position.x += (int)speed;
-        }
+        position.x += dx;
+        position.y += dy;
     }
 
-    public void pushBack(Direction direction, double speed) {
+    /**
+     * Pushes the entity by the given offset, without changing its action.
+     * @param dx the x offset of the push.
+     * @param dy the y offset of the push.
+     */
+    public void pushBack(int dx, int dy) {
+        position.x += dx;
+        position.y += dy;
+    }
+
+    /**
+     * Computes how many whole pixels the entity moves on the x-axis in a tick. The speed is scaled by the tick
+     * duration (see {@link Basic#SPEED_REFERENCE_TPS}), the fraction of pixel left is kept for the next moves.
+     * @param direction the move direction.
+     * @param speed the move speed, in pixels per tick at {@link Basic#SPEED_REFERENCE_TPS}.
+     * @return the x offset of the move.
+     */
+    public int stepX(Direction direction, double speed) {
 
-        //double speed = statistics.get("speed").getCurrentValue() * statistics.get("speed").getMultiplier();
+        remainderX = accumulate(remainderX, getDeltaX(direction) * getDistance(speed));
 
-        // Moves the player in the current direction
-        switch(direction) {
-            case UP -> position.y -= (int)speed;
-            case DOWN -> position.y += (int)speed;
-            case LEFT -> position.x -= (int)speed;
-            case RIGHT -> position.x += (int)speed;
+        int step = (int) remainderX;
+        remainderX -= step;
+
+        return step;
+    }
+
+    /**
+     * Computes how many whole pixels the entity moves on the y-axis in a tick, see
+     * {@link CharacterModel#stepX(Direction, double)}.
+     * @param direction the move direction.
+     * @param speed the move speed, in pixels per tick at {@link Basic#SPEED_REFERENCE_TPS}.
+     * @return the y offset of the move.
+     */
+    public int stepY(Direction direction, double speed) {
+
+        remainderY = accumulate(remainderY, getDeltaY(direction) * getDistance(speed));
+
+        int step = (int) remainderY;
+        remainderY -= step;
+
+        return step;
+    }
+
+    /**
+     * Drops the fractions of pixel of the last moves. This is used when the entity hits something, so it doesn't
+     * keep pushing against it.
+     */
+    public void resetRemainder() {
+        remainderX = 0;
+        remainderY = 0;
+    }
+
+    /**
+     * Adds a move to the fraction left by the previous ones. If the move goes in the opposite direction the old
+     * fraction is dropped.
+     */
+    private static double accumulate(double remainder, double delta) {
+
+        if (remainder * delta < 0) {
+            return delta;
         }
+
+        return remainder + delta;
+    }
+
+    /**
+     * @param speed a speed in pixels per tick at {@link Basic#SPEED_REFERENCE_TPS}.
+     * @return how many pixels are covered in a tick at {@link Basic#GAME_TPS}.
+     */
+    public static double getDistance(double speed) {
+        return speed * Basic.SPEED_REFERENCE_TPS / Basic.GAME_TPS;
+    }
+
+    /**
+     * @return how much time, in ticks at {@link Basic#SPEED_REFERENCE_TPS}, passes in a tick at
+     * {@link Basic#GAME_TPS}. Used by the effects that last a given number of ticks, like the knockback.
+     */
+    public static double getTickDuration() {
+        return (double) Basic.SPEED_REFERENCE_TPS / Basic.GAME_TPS;
+    }
+
+    /**
+     * @return the current speed of the entity, multiplier included.
+     */
+    public double getSpeed() {
+        PlayerStats.Statistic speed = statistics.get("speed");
+
+        return speed.getCurrentValue() * speed.getMultiplier();
+    }
+
+    /**
+     * Computes how a move in the given direction changes the x coordinate. Only the four main directions move
+     * the entity.
+     * @param direction the move direction.
+     * @return {@code -1}, {@code 0} or {@code 1}.
+     */
+    public static int getDeltaX(Direction direction) {
+        return switch (direction) {
+            case LEFT -> -1;
+            case RIGHT -> 1;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Computes how a move in the given direction changes the y coordinate. Only the four main directions move
+     * the entity.
+     * @param direction the move direction.
+     * @return {@code -1}, {@code 0} or {@code 1}.
+     */
+    public static int getDeltaY(Direction direction) {
+        return switch (direction) {
+            case UP -> -1;
+            case DOWN -> 1;
+            default -> 0;
+        };
     }
 
     /**
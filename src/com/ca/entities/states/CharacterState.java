@@ -30,6 +30,11 @@ public class CharacterState extends EntityState {
 
     private Direction direction;
 
+    /**
+     * The direction at the end of the previous tick, see {@link EntityState#settleAnimation()}.
+     */
+    private Direction settledDirection;
+
     /**
      * Creates the default state object with default {@link Action} and the {@link Direction} instances. <br>
      * The default values are {@code Basic.DEFAULT_ANIMATION} and {@code Basic.DEFAULT_DIRECTION}
@@ -38,6 +43,7 @@ public class CharacterState extends EntityState {
         super(position, Basic.DEFAULT_ANIMATION);
 
         this.direction = Basic.DEFAULT_ENTITY_DIRECTION;
+        this.settledDirection = direction;
     }
 
     /**
@@ -63,6 +69,27 @@ public class CharacterState extends EntityState {
         this.direction = direction;
     }
 
+    @Override
+    public void settleAnimation() {
+        if (settledDirection != direction) {
+            restartAnimation();
+        }
+
+        settledDirection = direction;
+
+        super.settleAnimation();
+    }
+
+    @Override
+    public void copy(EntityState state) {
+        super.copy(state);
+
+        if (state instanceof CharacterState casted) {
+            direction = casted.direction;
+            settledDirection = casted.settledDirection;
+        }
+    }
+
     @Override
     public String toString() {
         return "CharacterState[" + action + "; " + direction + "]";
@@ -16,7 +16,9 @@
 package com.ca.entities.states;
 
 import com.ca.constants.Position;
+import com.ca.game.GameLoop;
 import com.ca.resources.animations.Action;
+import com.ca.resources.animations.AnimationClock;
 
 /**
  * General state of every entity. It has the entity position and its animation. This class is made to
@@ -31,9 +33,27 @@ public class EntityState {
     protected Position position;
     protected Action action;
 
+    /**
+     * The position at the beginning of the current simulation tick, {@code null} if the entity has never been saved
+     * by the {@link GameLoop} (i.e. the blocks, which never move).
+     */
+    protected Position previous;
+
+    /**
+     * The tick the current animation started, see {@link AnimationClock}. It restarts when the action at the end of
+     * a tick differs from the one at the end of the previous tick, see {@link EntityState#settleAnimation()}.
+     */
+    protected long animationStart = AnimationClock.getTick();
+
+    /**
+     * The action at the end of the previous tick.
+     */
+    protected Action settledAction;
+
     public EntityState(Position position, Action action) {
         this.position = position;
         this.action = action;
+        this.settledAction = action;
     }
 
     /**
@@ -51,6 +71,33 @@ public class EntityState {
         this.action = action;
     }
 
+    /**
+     * @return the tick the current animation started, see {@link AnimationClock}.
+     */
+    public long getAnimationStart() {
+        return animationStart;
+    }
+
+    /**
+     * Plays the current animation from its first frame.
+     */
+    public void restartAnimation() {
+        animationStart = AnimationClock.getTick();
+    }
+
+    /**
+     * Restarts the animation if the action changed since the end of the previous tick. The controllers can change
+     * the action more than once in the same tick (i.e. walking, then running), so the animation is only restarted
+     * by the final one. This has to be called by the simulation once per tick, at its end.
+     */
+    public void settleAnimation() {
+        if (settledAction != action) {
+            restartAnimation();
+        }
+
+        settledAction = action;
+    }
+
     /**
      * @return the entity's position.
      */
@@ -66,4 +113,55 @@ public class EntityState {
         this.position = position;
     }
 
+    /**
+     * Stores the current position as the previous one. This is called by the {@link GameLoop} before each
+     * simulation tick, so that the frames drawn between two ticks can interpolate the movement.
+     */
+    public void savePosition() {
+        if (previous == null) {
+            previous = new Position();
+        }
+
+        previous.set(position.x, position.y);
+    }
+
+    /**
+     * Copies the values of the given state in this one. This is only used on the copies published by
+     * {@link com.ca.game.WorldSnapshot}, since the position is written in place and the position of a model's
+     * state is the model's position.
+     * @param state the state to copy.
+     */
+    public void copy(EntityState state) {
+
+        position.set(state.position.x, state.position.y);
+        action = state.action;
+        settledAction = state.settledAction;
+        animationStart = state.animationStart;
+
+        if (state.previous == null) {
+            previous = null;
+        }
+        else {
+            if (previous == null) {
+                previous = new Position();
+            }
+
+            previous.set(state.previous.x, state.previous.y);
+        }
+    }
+
+    /**
+     * @return the x coordinate where the entity has to be drawn in the current frame.
+     */
+    public int getRenderX() {
+        return previous == null ? position.x : GameLoop.interpolate(previous.x, position.x);
+    }
+
+    /**
+     * @return the y coordinate where the entity has to be drawn in the current frame.
+     */
+    public int getRenderY() {
+        return previous == null ? position.y : GameLoop.interpolate(previous.y, position.y);
+    }
+
 }
\ No newline at end of file
@@ -34,6 +34,11 @@ public class ItemState extends EntityState {
      * Default item direction. The {@link Direction#UP} direction is used since its ordinal value is 0.
      */
     protected Direction direction = Basic.DEFAULT_ITEM_DIRECTION;
+
+    /**
+     * The direction at the end of the previous tick, see {@link EntityState#settleAnimation()}.
+     */
+    private Direction settledDirection = direction;
     private Effect[] effects;
 
     private boolean equipped = false;
@@ -105,6 +110,17 @@ public class ItemState extends EntityState {
         this.direction = direction;
     }
 
+    @Override
+    public void settleAnimation() {
+        if (settledDirection != direction) {
+            restartAnimation();
+        }
+
+        settledDirection = direction;
+
+        super.settleAnimation();
+    }
+
     /**
      * Set the item's position.
      * @param position the new item's position.
@@ -118,7 +134,7 @@ public class ItemState extends EntityState {
      * @param action the new item state.
      */
     public void setAction(Action action) {
-        this.action = action;
+        setType(action);
     }
 
     /**
@@ -135,6 +151,18 @@ public class ItemState extends EntityState {
         return action;
     }
 
+    @Override
+    public void copy(EntityState state) {
+        super.copy(state);
+
+        if (state instanceof ItemState casted) {
+            direction = casted.direction;
+            settledDirection = casted.settledDirection;
+            equipped = casted.equipped;
+            inUse = casted.inUse;
+        }
+    }
+
     public Effect[] getEffects() {
         return effects;
     }
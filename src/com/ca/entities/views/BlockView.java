@@ -23,7 +23,7 @@ import com.ca.errors.Logger;
 import com.ca.entities.states.EntityState;
 import com.ca.errors.general.UnknownException;
 import com.ca.game.CollisionManager;
-import com.ca.maps.GameScene;
+import com.ca.resources.CompositeCache;
 import com.ca.resources.Utility;
 import com.ca.resources.animations.BlockAnimation;
 
@@ -47,7 +47,11 @@ public class BlockView extends EntityView {
     private final List<BufferedImage> overlays = new ArrayList<>();
 
     private final HashMap<Direction, BufferedImage> activeOverlays = new HashMap<>();
-    private boolean isPostRendered = false;
+
+    /**
+     * The active overlays registered in the {@link CompositeCache}, so the block is drawn with a single image.
+     */
+    private int overlaySet = CompositeCache.NO_OVERLAYS;
     private final boolean printOnBlock;
 
     private final String[] connectsWith;
@@ -94,23 +98,6 @@ public class BlockView extends EntityView {
         return Arrays.asList(connectsWith).contains("*");
     }
 
-    /**
-     * Sets the post render status of the current block. If the current block has already been analyzed then the {@link com.ca.gui.PostRenderer}
-     * can simply skip this.
-     * @param isPostRendered the new post render status.
-     */
-    public void isPostRendered(boolean isPostRendered) {
-        this.isPostRendered = isPostRendered;
-    }
-
-    /**
-     * @return {@code true} if the block has already been processed by the {@link com.ca.gui.PostRenderer#apply(GameScene)} method,
-     * otherwise {@code false}.
-     */
-    public boolean isPostRendered() {
-        return isPostRendered;
-    }
-
     public BufferedImage[] getOverlays() {
         return overlays.toArray(new BufferedImage[0]);
     }
@@ -142,13 +129,49 @@ public class BlockView extends EntityView {
             activeOverlays.put(Direction.DOWN_LEFT, overlays.get(Direction.DOWN_LEFT.ordinal()));
         }
 
-        if (activeOverlays.containsKey(Direction.UP) && activeOverlays.containsKey(Direction.LEFT)) {
+        if (activeOverlays.containsKey(Direction.UP) && activeOverlays.containsKey(Direction.RIGHT)) {
             activeOverlays.put(Direction.UP_RIGHT, overlays.get(Direction.UP_RIGHT.ordinal()));
         }
 
         if (activeOverlays.containsKey(Direction.DOWN) && activeOverlays.containsKey(Direction.RIGHT)) {
             activeOverlays.put(Direction.DOWN_RIGHT, overlays.get(Direction.DOWN_RIGHT.ordinal()));
         }
+
+        BufferedImage[] images = new BufferedImage[Direction.values().length];
+
+        for(Direction d : activeOverlays.keySet()) {
+            images[d.ordinal()] = activeOverlays.get(d);
+        }
+
+        overlaySet = CompositeCache.getOverlaySet(images);
+    }
+
+    /**
+     * Deactivates all the overlays of the block.
+     */
+    public void clearOverlays() {
+        activeOverlays.clear();
+        overlaySet = CompositeCache.NO_OVERLAYS;
+    }
+
+    /**
+     * @return {@code true} if the current texture has more than one frame, otherwise {@code false}.
+     */
+    public boolean isAnimated() {
+        return animations.get(defaultTexture).getLength(Basic.DEFAULT_BLOCK_DIRECTION) > 1;
+    }
+
+    /**
+     * Draws the first frame and the active overlays at the given coordinates, used for the static blocks.
+     * @param g the graphics to draw on.
+     * @param x the x coordinate where to draw the block.
+     * @param y the y coordinate where to draw the block.
+     */
+    public void paint(Graphics g, int x, int y) {
+
+        BufferedImage frame = CompositeCache.get(animations.get(defaultTexture).frameAt(Basic.DEFAULT_BLOCK_DIRECTION, 0), overlaySet);
+
+        g.drawImage(frame, x, y, frame.getWidth(), frame.getHeight(), null);
     }
 
     protected final void loadAnimations() { }
@@ -165,18 +188,17 @@ public class BlockView extends EntityView {
             return;
         }
 
-        BufferedImage frame = animations.get(defaultTexture).getCurrentFrame(Basic.DEFAULT_BLOCK_DIRECTION);
-
         if(Utility.isBlockInView(state, CollisionManager.CHECK_RADIUS)) {
-            Position p = Utility.getEntityScreenCoords(state);
 
-            g.drawImage(frame, p.x, p.y, frame.getWidth(),frame.getHeight(), null);
+            // All the blocks of the same type share the animation, so they move in lockstep
+            BufferedImage frame = animations.get(defaultTexture).getCurrentFrame(Basic.DEFAULT_BLOCK_DIRECTION);
+
+            // The overlays are already drawn on the composite, one image for each frame and overlay set
+            BufferedImage composite = CompositeCache.get(frame, overlaySet);
+
+            Position p = Utility.getEntityScreenCoords(state);
 
-            for(BufferedImage overlay : activeOverlays.values()) {
-                if (overlay != null) {
-                    g.drawImage(overlay, p.x, p.y, overlay.getWidth(), overlay.getHeight(), null);
-                }
-            }
+            g.drawImage(composite, p.x, p.y, composite.getWidth(), composite.getHeight(), null);
         }
     }
 }
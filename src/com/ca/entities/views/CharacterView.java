@@ -16,18 +16,17 @@
 package com.ca.entities.views;
 
 import com.ca.constants.Assets;
-import com.ca.entities.characters.Camera;
+import com.ca.constants.Position;
 import com.ca.entities.controllers.CharacterController;
 import com.ca.entities.states.CharacterState;
 import com.ca.entities.states.EntityState;
 import com.ca.errors.Logger;
 import com.ca.errors.general.UnknownException;
-import com.ca.events.GameMouseHandler;
-import com.ca.events.GameWindowHandler;
-import com.ca.game.CameraManager;
+import com.ca.game.Viewport;
 import com.ca.resources.MetadataDeserializer;
 import com.ca.resources.Utility;
 import com.ca.resources.animations.Action;
+import com.ca.resources.animations.AnimationClock;
 import com.ca.resources.SpritesheetLoader;
 import com.ca.resources.animations.CharacterAnimation;
 import com.ca.resources.animations.template.EntityAnimation;
@@ -83,6 +82,8 @@ public class CharacterView extends EntityView {
         msgBox.setSpeed(0.15);
         msgBox.setRunOne(true);
 
+        // All the frames have been cut, the spritesheet is counted as released
+        SpritesheetLoader.release(texturePath);
 
         Logger.log(Logger.MESSAGE, "Animations from file ('" + texturePath + "') have been successfully loaded!");
     }
@@ -104,8 +105,23 @@ public class CharacterView extends EntityView {
     }
 
 
-    public void resetMsgBox() {
-        msgBox.setCurrentFrame(0);
+    /**
+     * Checks if the animation of the given state has been played entirely, then restarts it and notifies its
+     * listeners. This is called by the simulation once per tick, so the listeners run on the game thread.
+     * @param state the character's state.
+     */
+    public void updateAnimation(CharacterState state) {
+
+        EntityAnimation animation = animations.get(state.getType().getID());
+
+        if (animation == null) {
+            return;
+        }
+
+        if (animation.hasEnded(state.getDirection(), AnimationClock.getTick() - state.getAnimationStart())) {
+            state.restartAnimation();
+            animation.notifyListeners(state.getDirection());
+        }
     }
 
     /**
@@ -128,13 +144,21 @@ public class CharacterView extends EntityView {
         // renders the current character onto the graphics
         CharacterAnimation animation = (CharacterAnimation) animations.get(state.getType().getID());
         
-        BufferedImage img = animation.getCurrentFrame(state.getDirection());
+        BufferedImage img = animation.frameAt(state.getDirection(), AnimationClock.getFrameTime() - state.getAnimationStart());
+
+        Position p = Utility.getEntityScreenCoords(eState);
 
-        g.drawImage(img, Utility.getEntityScreenCoords(eState).x, Utility.getEntityScreenCoords(eState).y, img.getWidth(), img.getHeight(), null);
+        g.drawImage(img, p.x, p.y, img.getWidth(), img.getHeight(), null);
     }
 
 
-    public void drawMsgBox(EntityState eState, java.awt.Graphics g) {
+    /**
+     * Draws the message box over the character.
+     * @param eState the entity's state.
+     * @param g the graphics to draw on.
+     * @param talkingSince the tick the message box has been opened.
+     */
+    public void drawMsgBox(EntityState eState, java.awt.Graphics g, long talkingSince) {
 
         CharacterState state;
 
@@ -146,11 +170,9 @@ public class CharacterView extends EntityView {
             return;
         }
 
-        BufferedImage img = msgBox.getCurrentFrame();
-
-        Camera c = CameraManager.get(Camera.MAIN_CAMERA);
+        BufferedImage img = msgBox.getFrameAt(AnimationClock.getFrameTime() - talkingSince);
 
-        g.drawImage(img, state.getPosition().x - c.getPosition().x + (GameWindowHandler.getWindowWidth() / (int)(2 * GameMouseHandler.defaultScale)) - getFrameWidth() / 2,
-                state.getPosition().y - c.getPosition().y + (GameWindowHandler.getWindowHeight() / (int)(2 * GameMouseHandler.defaultScale)) - getFrameHeight() / 2, img.getWidth(), img.getHeight(), null);
+        g.drawImage(img, state.getRenderX() + Viewport.getOriginX() - getFrameWidth() / 2,
+                state.getRenderY() + Viewport.getOriginY() - getFrameHeight() / 2, img.getWidth(), img.getHeight(), null);
     }
 }
@@ -15,6 +15,7 @@
  */
 package com.ca.entities.views;
 
+import com.ca.constants.Basic;
 import com.ca.entities.states.EntityState;
 import com.ca.resources.animations.Action;
 import com.ca.resources.animations.template.Animation;
@@ -114,7 +115,7 @@ public abstract class EntityView {
      */
     public int getFrameWidth() {
         if (animations.size() > 0) {
-            return animations.get(defaultTexture).peekCurrentFrame().getWidth();
+            return animations.get(defaultTexture).frameAt(Basic.DEFAULT_BLOCK_DIRECTION, 0).getWidth();
         }
 
         return 0;
@@ -125,7 +126,7 @@ public abstract class EntityView {
      */
     public int getFrameHeight() {
         if (animations.size() > 0) {
-            return animations.get(defaultTexture).peekCurrentFrame().getHeight();
+            return animations.get(defaultTexture).frameAt(Basic.DEFAULT_BLOCK_DIRECTION, 0).getHeight();
         }
 
         return 0;
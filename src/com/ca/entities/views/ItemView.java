@@ -17,16 +17,14 @@ package com.ca.entities.views;
 
 import com.ca.constants.Assets;
 import com.ca.constants.Basic;
-import com.ca.entities.characters.Camera;
 import com.ca.entities.states.EntityState;
 import com.ca.entities.states.ItemState;
 import com.ca.errors.Logger;
-import com.ca.events.GameMouseHandler;
-import com.ca.events.GameWindowHandler;
-import com.ca.game.CameraManager;
+import com.ca.game.Viewport;
 import com.ca.resources.MetadataDeserializer;
 import com.ca.resources.SpritesheetLoader;
 import com.ca.resources.animations.Action;
+import com.ca.resources.animations.AnimationClock;
 import com.ca.resources.animations.template.Animation;
 import com.ca.resources.animations.ItemAnimation;
 
@@ -89,6 +87,9 @@ public class ItemView extends EntityView {
 
         this.icon = SpritesheetLoader.loadIconAnimation(texturePath);
 
+        // All the frames have been cut, the spritesheet is counted as released
+        SpritesheetLoader.release(texturePath);
+
         animations.get(Action.Running.getID()).setSpeed(0.35);
         animations.get(Action.Attacking.getID()).setSpeed(0.17);
 
@@ -109,9 +110,9 @@ public class ItemView extends EntityView {
             return;
         }
 
-        Camera c = CameraManager.get(Camera.MAIN_CAMERA);
+        long ticks = AnimationClock.getFrameTime() - state.getAnimationStart();
 
-        BufferedImage img = icon.getCurrentFrame(state.getDirection());
+        BufferedImage img = icon.frameAt(state.getDirection(), ticks);
 
         if(state.isEquipped()) {
 
@@ -120,13 +121,13 @@ public class ItemView extends EntityView {
 
             // If the correct animation is found then it draws its image on screen
             if (animation != null) {
-                img = animation.getCurrentFrame(state.getDirection());
+                img = animation.frameAt(state.getDirection(), ticks);
             }
         }
 
         if(state.isInUse() || !state.isEquipped()) {
-            g.drawImage(img, state.getPosition().x - ((img.getWidth() - Basic.DEFAULT_BLOCK_WIDTH * 2) / 2) - c.getPosition().x + (GameWindowHandler.getWindowWidth() / (int) (2 * GameMouseHandler.defaultScale)) - Basic.DEFAULT_BLOCK_WIDTH,
-                    state.getPosition().y - ((img.getHeight() - Basic.DEFAULT_BLOCK_HEIGHT * 2) / 2) - c.getPosition().y + (GameWindowHandler.getWindowHeight() / (int) (2 * GameMouseHandler.defaultScale)) - Basic.DEFAULT_BLOCK_HEIGHT,
+            g.drawImage(img, state.getRenderX() - ((img.getWidth() - Basic.DEFAULT_BLOCK_WIDTH * 2) / 2) + Viewport.getOriginX() - Basic.DEFAULT_BLOCK_WIDTH,
+                    state.getRenderY() - ((img.getHeight() - Basic.DEFAULT_BLOCK_HEIGHT * 2) / 2) + Viewport.getOriginY() - Basic.DEFAULT_BLOCK_HEIGHT,
                     img.getWidth(), img.getHeight(), null);
         }
     }
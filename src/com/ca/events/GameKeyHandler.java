@@ -16,17 +16,18 @@
 package com.ca.events;
 
 import com.ca.events.movements.MoveHandler;
-import com.ca.game.EntityManager;
 import com.ca.ui.Framable;
 
-import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
- * Main game key handler for the keyboard inputs.
+ * Main game key handler for the keyboard inputs. <br>
+ * The Swing thread writes each key event in an {@link InputEventQueue} with its time, and in a bit set with the keys
+ * currently down. The game thread reads the queue with {@link GameKeyHandler#poll()}: a key pressed and released
+ * between two ticks still counts as pressed for the next tick, so no tap is lost. Neither thread ever waits for the
+ * other and no key is boxed.
  *
  * @see MoveHandler
  * @since 1.0.00
@@ -35,34 +36,76 @@ import java.util.Map;
 public class GameKeyHandler extends KeyAdapter {
 
     /**
-     * Maps that controls all keyboard's key states.
+     * The number of key codes, the codes are stored as {@code char}.
      */
-    private static final Map<Character, Boolean> keys = new HashMap<>();
+    private static final int KEYS = 1 << 16;
 
     /**
-     * All the screenshot listeners, this is not a list since there can only be one since the {@link Framable}
-     * interface permits only a single class to implement it.
+     * The keys currently down, written by the Swing thread.
      */
-    private static Framable listener;
+    private static final AtomicLongArray down = new AtomicLongArray(KEYS / 64);
 
     /**
-     * Binds an entity with the key handler.
+     * The key events not read yet by the game thread.
      */
-    public GameKeyHandler() {
-        // Run the main thread with the move handler
-        try {
-            new Thread(new MoveHandler(EntityManager.subject, listener), "MoveHandlerT").start();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
+    private static final InputEventQueue events = new InputEventQueue();
+
+    /**
+     * Set when an event didn't fit in the queue, the game thread then reads the keys from {@link GameKeyHandler#down}.
+     */
+    private static volatile boolean overflow = false;
+
+    /**
+     * The keys down after the last poll, as seen by the game thread.
+     */
+    private static final long[] held = new long[KEYS / 64];
+
+    /*
+     * The keys pressed since they were last read, even if they have been released already. The simulation and the
+     * shortcuts run on different channels of the game loop, so each of them forgets only the keys it has read.
+     */
+    private static final Strokes strokes = new Strokes();
+    private static final Strokes shortcutStrokes = new Strokes();
+
+    private static final InputEventQueue.Event event = new InputEventQueue.Event();
+
+    /**
+     * The average time, in nanoseconds, between a key event and its poll.
+     */
+    private static volatile long latency = 0;
+
+    /**
+     * All the screenshot listeners, this is not a list since there can only be one since the {@link Framable}
+     * interface permits only a single class to implement it.
+     */
+    private static Framable listener;
 
     public void keyPressed(KeyEvent e) {
-        keys.put((char) e.getKeyCode(), true);
+        update((char) e.getKeyCode(), true);
     }
 
     public void keyReleased(KeyEvent e) {
-        keys.put((char) e.getKeyCode(), false);
+        update((char) e.getKeyCode(), false);
+    }
+
+    /**
+     * Stores a key event, called by the Swing thread.
+     */
+    private static void update(int key, boolean pressed) {
+
+        long mask = 1L << key;
+
+        // Updates the bit of the key only, the other keys can change at the same time
+        if (pressed) {
+            down.getAndUpdate(key >>> 6, bits -> bits | mask);
+        }
+        else {
+            down.getAndUpdate(key >>> 6, bits -> bits & ~mask);
+        }
+
+        if (!events.offer(key, pressed, System.nanoTime())) {
+            overflow = true;
+        }
     }
 
     /**
@@ -71,25 +114,113 @@ public class GameKeyHandler extends KeyAdapter {
      * the player will keep thinking that the user is still pressing those inputs.
      */
     public static void resetInputs() {
-        for(Map.Entry<Character, Boolean> key : keys.entrySet()) {
-            if (key.getValue()) {
-                key.setValue(false);
+        for(int i = 0; i < down.length(); i++) {
+            long bits = down.get(i);
+
+            // Releases the keys one by one, so the game thread sees them in order
+            while (bits != 0) {
+                update(i * 64 + Long.numberOfTrailingZeros(bits), false);
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Reads all the key events received since the last poll. This has to be called by the game thread at the
+     * beginning of each tick, before {@link GameKeyHandler#isKeyPressed(char)}.
+     */
+    public static void poll() {
+
+        long now = System.nanoTime();
+
+        while (events.poll(event)) {
+            int key = event.getKey();
+            long mask = 1L << key;
+
+            if (event.isPressed()) {
+                held[key >>> 6] |= mask;
+
+                strokes.add(key);
+                shortcutStrokes.add(key);
+            }
+            else {
+                held[key >>> 6] &= ~mask;
+            }
+
+            latency = (latency * 15 + (now - event.getTime())) / 16;
+        }
+
+        // Some events have been lost, the keys down are read directly
+        if (overflow) {
+            overflow = false;
+
+            for(int i = 0; i < held.length; i++) {
+                held[i] = down.get(i);
             }
         }
     }
 
+    /**
+     * Forgets the keys pressed and already released, after the simulation tick has read them. This has to be
+     * called by the game thread at the end of each simulation tick.
+     */
+    public static void clearStrokes() {
+        strokes.clear();
+    }
+
+    /**
+     * Forgets the keys pressed and already released, after the shortcuts have read them. This has to be called by
+     * the game thread at the end of each input tick.
+     */
+    public static void clearShortcutStrokes() {
+        shortcutStrokes.clear();
+    }
+
     /**
      * Checks if a given character is pressed. To check invisible characters {@code (CTRL,ALT,SHIFT...)},
-     * you can use the {@link KeyEvent} static entries.
+     * you can use the {@link KeyEvent} static entries. <br>
+     * This is the state read by the last {@link GameKeyHandler#poll()}, so it can only be used by the game thread.
      * @param key the key value to check for.
-     * @return {@code true} if the given character is pressed, otherwise it returns {@code false}.
+     * @return {@code true} if the given character is pressed or has been pressed since the last tick, otherwise it
+     * returns {@code false}.
      */
     public static boolean isKeyPressed(char key) {
-        if (!keys.containsKey(key)) {
-            return false;
-        }
+        return ((held[key >>> 6] | strokes.bits[key >>> 6]) & (1L << key)) != 0;
+    }
 
-        return keys.get(key);
+    /**
+     * Checks if a given key is pressed, like {@link GameKeyHandler#isKeyPressed(char)}, for the shortcuts read on
+     * the input channel of the game loop. A key tapped once is seen by a single input tick.
+     * @param key the key value to check for.
+     * @return {@code true} if the given key is pressed or has been pressed since the last input tick, otherwise it
+     * returns {@code false}.
+     */
+    public static boolean isShortcutPressed(char key) {
+        return ((held[key >>> 6] | shortcutStrokes.bits[key >>> 6]) & (1L << key)) != 0;
+    }
+
+    /**
+     * Checks if a given key is currently down. Unlike {@link GameKeyHandler#isKeyPressed(char)} this can be called
+     * by any thread.
+     * @param key the key value to check for.
+     * @return {@code true} if the given key is down, otherwise {@code false}.
+     */
+    public static boolean isKeyDown(char key) {
+        return (down.get(key >>> 6) & (1L << key)) != 0;
+    }
+
+    /**
+     * @return the average time, in nanoseconds, between a key event and the tick that reads it.
+     */
+    public static long getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return the main game window to screenshot, {@code null} if it has not been added yet.
+     */
+    public static Framable getScreenshotListener() {
+        return listener;
     }
 
     /**
@@ -99,4 +230,33 @@ public class GameKeyHandler extends KeyAdapter {
     public static void addScreenshotListener(Framable frame) {
         listener = frame;
     }
+
+    /**
+     * A set of keys pressed since its last clear, which also lists its keys so that clearing it doesn't scan all
+     * the key codes.
+     */
+    private static class Strokes {
+
+        private final long[] bits = new long[KEYS / 64];
+        private final int[] keys = new int[InputEventQueue.CAPACITY];
+        private int count = 0;
+
+        private void add(int key) {
+
+            long mask = 1L << key;
+
+            if ((bits[key >>> 6] & mask) == 0 && count < keys.length) {
+                bits[key >>> 6] |= mask;
+                keys[count++] = key;
+            }
+        }
+
+        private void clear() {
+            for(int i = 0; i < count; i++) {
+                bits[keys[i] >>> 6] &= ~(1L << keys[i]);
+            }
+
+            count = 0;
+        }
+    }
 }
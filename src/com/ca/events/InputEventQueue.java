@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed size queue of timestamped key events, written by a single thread (the Swing thread, through the
+ * {@link GameKeyHandler}) and read by a single thread (the game thread). <br>
+ * Each side only writes its own index, and publishes it after the slots it wrote or read, so neither side ever
+ * waits for the other. When the queue is full the new events are refused, the reader has to find the state of the
+ * keys in another way.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class InputEventQueue {
+
+    /**
+     * The number of events the queue can hold, a power of two.
+     */
+    public static final int CAPACITY = 256;
+
+    private static final int MASK = CAPACITY - 1;
+
+    private final int[] keys = new int[CAPACITY];
+    private final boolean[] pressed = new boolean[CAPACITY];
+    private final long[] times = new long[CAPACITY];
+
+    /**
+     * The index of the next event to read, written by the reader only.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * The index of the next event to write, written by the writer only.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Adds an event at the end of the queue. Only the writer thread can call this method.
+     * @param key the key code.
+     * @param isPressed {@code true} if the key has been pressed, {@code false} if it has been released.
+     * @param time when the event happened, as given by {@link System#nanoTime()}.
+     * @return {@code true} if the event has been added, {@code false} if the queue is full.
+     */
+    public boolean offer(int key, boolean isPressed, long time) {
+
+        long t = tail.get();
+
+        if (t - head.get() >= CAPACITY) {
+            return false;
+        }
+
+        int slot = (int) (t & MASK);
+
+        keys[slot] = key;
+        pressed[slot] = isPressed;
+        times[slot] = time;
+
+        // Publishes the slot to the reader
+        tail.lazySet(t + 1);
+
+        return true;
+    }
+
+    /**
+     * Removes the first event of the queue and copies it in the given event. Only the reader thread can call this
+     * method.
+     * @param out where to copy the event.
+     * @return {@code true} if an event has been read, {@code false} if the queue is empty.
+     */
+    public boolean poll(Event out) {
+
+        long h = head.get();
+
+        if (h >= tail.get()) {
+            return false;
+        }
+
+        int slot = (int) (h & MASK);
+
+        out.key = keys[slot];
+        out.pressed = pressed[slot];
+        out.time = times[slot];
+
+        // Gives the slot back to the writer
+        head.lazySet(h + 1);
+
+        return true;
+    }
+
+    /**
+     * @return the number of events waiting to be read.
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * A key event read from the queue, reused by each read.
+     */
+    public static class Event {
+
+        private int key;
+        private boolean pressed;
+        private long time;
+
+        /**
+         * @return the key code.
+         */
+        public int getKey() {
+            return key;
+        }
+
+        /**
+         * @return {@code true} if the key has been pressed, {@code false} if it has been released.
+         */
+        public boolean isPressed() {
+            return pressed;
+        }
+
+        /**
+         * @return when the event happened, as given by {@link System#nanoTime()}.
+         */
+        public long getTime() {
+            return time;
+        }
+    }
+}
@@ -16,7 +16,6 @@
 package com.ca.events.movements;
 
 import com.ca.constants.Basic;
-import com.ca.constants.Clock;
 import com.ca.constants.Direction;
 import com.ca.entities.characters.Player;
 import com.ca.entities.controllers.CharacterController;
@@ -24,6 +23,7 @@ import com.ca.entities.controllers.CharacterController;
 import static com.ca.events.GameKeyHandler.isKeyPressed;
 
 import com.ca.events.GameKeyHandler;
+import com.ca.game.CollisionManager;
 import com.ca.game.EntityManager;
 import com.ca.resources.animations.Action;
 import com.ca.ui.Framable;
@@ -32,12 +32,13 @@ import java.awt.event.KeyEvent;
 
 /**
  * This class handles all the inputs of the player. It directly sets the actions of the {@link Player} assigned to the specific
- * move handler instance.
+ * move handler instance. The inputs are read by the {@link com.ca.game.GameLoop}, the keyboard shortcuts on their own
+ * tick channel and the player's actions once per simulation tick.
  *
  * @since 1.0.00
  * @author Macaluso Francesco
  */
-public class MoveHandler implements Runnable {
+public class MoveHandler {
 
     public static boolean inventoryFlag = false;
     public static boolean statisticsFlag = false;
@@ -71,52 +72,66 @@ public class MoveHandler implements Runnable {
         this.framable = framables;
     }
 
-    public void run() {
-
-        while (!Thread.currentThread().isInterrupted() && player != null) {
-            if (Clock.tick()) {
-
-                // Takes a screenshot
-                if (GameKeyHandler.isKeyPressed((char) KeyEvent.VK_F2) && System.currentTimeMillis() - lastScreenshotTime >= Basic.DEFAULT_SCREENSHOT_DELAY) {
-                    framable.takeScreenshot(Basic.DEFAULT_SCREENSHOT_PATH);
-                    lastScreenshotTime = System.currentTimeMillis();
-                }
-
-                if(GameKeyHandler.isKeyPressed((char) KeyEvent.VK_I) && System.currentTimeMillis() - lastInventoryOpenTime >= Basic.DEFAULT_INVENTORY_DELAY) {
-                    inventoryFlag = !inventoryFlag;
-                    lastInventoryOpenTime = System.currentTimeMillis();
-
-                    if(!inventoryFlag) {
-                        statisticsFlag = false;
-                    }
-                }
-
-                if(GameKeyHandler.isKeyPressed((char) KeyEvent.VK_B) && System.currentTimeMillis() - lastStatisticOpenTime >= Basic.DEFAULT_INVENTORY_DELAY && inventoryFlag) {
-                    statisticsFlag = !statisticsFlag;
-                    lastStatisticOpenTime = System.currentTimeMillis();
-                }
-
-                if(GameKeyHandler.isKeyPressed((char) KeyEvent.VK_ESCAPE)) {
-                    inventoryFlag = false;
-                    statisticsFlag = false;
-                }
-
-                // Checks if the player is attacking, if so he can't do anything
-                if (!Action.isAttacking(player.getStateManager().getType())) {
-
-                    // If the player isn't moving, then its idling
-                    if (!isMoving()) {
-                        player.doAction(Action.Idling);
-                    }
-                    else {
-                        player.doAction(Action.Walking);
-                        checkMovements();
-                    }
-
-                    checkActions();
-                }
+    /**
+     * Handles the keyboard shortcuts that don't change the game world. This is called by the
+     * {@link com.ca.game.GameLoop} on each {@link com.ca.game.TickScheduler#INPUT} tick, which then forgets the
+     * shortcuts read, see {@link GameKeyHandler#clearShortcutStrokes()}.
+     */
+    public void handleShortcuts() {
+
+        // Takes a screenshot
+        if (framable != null && GameKeyHandler.isShortcutPressed((char) KeyEvent.VK_F2) && System.currentTimeMillis() - lastScreenshotTime >= Basic.DEFAULT_SCREENSHOT_DELAY) {
+            framable.takeScreenshot(Basic.DEFAULT_SCREENSHOT_PATH);
+            lastScreenshotTime = System.currentTimeMillis();
+        }
+
+        if(GameKeyHandler.isShortcutPressed((char) KeyEvent.VK_I) && System.currentTimeMillis() - lastInventoryOpenTime >= Basic.DEFAULT_INVENTORY_DELAY) {
+            inventoryFlag = !inventoryFlag;
+            lastInventoryOpenTime = System.currentTimeMillis();
+
+            if(!inventoryFlag) {
+                statisticsFlag = false;
             }
         }
+
+        if(GameKeyHandler.isShortcutPressed((char) KeyEvent.VK_B) && System.currentTimeMillis() - lastStatisticOpenTime >= Basic.DEFAULT_INVENTORY_DELAY && inventoryFlag) {
+            statisticsFlag = !statisticsFlag;
+            lastStatisticOpenTime = System.currentTimeMillis();
+        }
+
+        if(GameKeyHandler.isShortcutPressed((char) KeyEvent.VK_ESCAPE)) {
+            inventoryFlag = false;
+            statisticsFlag = false;
+        }
+    }
+
+    /**
+     * Handles the inputs of a single simulation tick. This is called by the {@link com.ca.game.GameLoop} on each
+     * {@link com.ca.game.TickScheduler#SIMULATION} tick.
+     */
+    public void update() {
+
+        if (player == null) {
+            return;
+        }
+
+        // Finds the characters that can touch each other in this tick
+        CollisionManager.updateContacts();
+
+        // Checks if the player is attacking, if so he can't do anything
+        if (!Action.isAttacking(player.getStateManager().getType())) {
+
+            // If the player isn't moving, then its idling
+            if (!isMoving()) {
+                player.doAction(Action.Idling);
+            }
+            else {
+                player.doAction(Action.Walking);
+                checkMovements();
+            }
+
+            checkActions();
+        }
     }
 
     /**
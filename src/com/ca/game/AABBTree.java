@@ -0,0 +1,544 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.game;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Dynamic bounding volume hierarchy of axis aligned boxes, used for the hitboxes of the objects that move freely
+ * around the map (characters and items) instead of being bound to the grid cells. <br>
+ * Each object is stored in a leaf with a 'fat' box, its hitbox enlarged by {@link AABBTree#MARGIN} pixels on each
+ * side: as long as the hitbox stays inside it a move only updates the leaf, otherwise the leaf is reinserted. The
+ * tree is kept balanced with rotations, so queries, insertions and removals cost {@code O(log n)}. <br>
+ * The queries are made against the real hitboxes, and they follow the rules of
+ * {@link java.awt.Rectangle#intersects(java.awt.Rectangle)}: touching edges and empty boxes never overlap. <br>
+ * Objects are compared by identity, like in {@link SpatialHash}.
+ * @param <T> the type of the indexed objects.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class AABBTree<T> {
+
+    /**
+     * How many pixels the leaf boxes are enlarged on each side.
+     */
+    public static final int MARGIN = 8;
+
+    private static final int NULL = -1;
+
+    private int root = NULL;
+
+    /**
+     * The nodes are stored in parallel arrays, the free nodes are linked through {@link AABBTree#parent}.
+     */
+    private int capacity;
+    private int freeList = NULL;
+
+    private int[] minX;
+    private int[] minY;
+    private int[] maxX;
+    private int[] maxY;
+
+    private int[] parent;
+    private int[] left;
+    private int[] right;
+    private int[] height;
+
+    /**
+     * The real box and the object of each leaf.
+     */
+    private int[] boxX;
+    private int[] boxY;
+    private int[] boxW;
+    private int[] boxH;
+    private Object[] elements;
+
+    /**
+     * The leaf of each indexed object, in a single element array so that the lookup doesn't box the index.
+     */
+    private final IdentityHashMap<T, int[]> leaves = new IdentityHashMap<>();
+
+    /**
+     * Traversal stack, reused by all the queries.
+     */
+    private int[] stack = new int[64];
+
+    /**
+     * Creates an empty tree.
+     */
+    public AABBTree() {
+        allocate(16);
+    }
+
+    /**
+     * Adds an object to the tree. If the object is already indexed it is moved.
+     * @param element the object to add.
+     * @param x the x coordinate of the object's hitbox.
+     * @param y the y coordinate of the object's hitbox.
+     * @param width the width of the object's hitbox.
+     * @param height the height of the object's hitbox.
+     */
+    public synchronized void add(T element, int x, int y, int width, int height) {
+
+        int[] leaf = leaves.get(element);
+
+        if (leaf != null) {
+            move(leaf[0], x, y, width, height);
+            return;
+        }
+
+        int node = allocateNode();
+
+        elements[node] = element;
+        setBox(node, x, y, width, height);
+        insertLeaf(node);
+
+        leaves.put(element, new int[] { node });
+    }
+
+    /**
+     * Updates the hitbox of an already indexed object. Objects that are not indexed are ignored.
+     * @param element the object that moved.
+     * @param x the new x coordinate of the object's hitbox.
+     * @param y the new y coordinate of the object's hitbox.
+     * @param width the new width of the object's hitbox.
+     * @param height the new height of the object's hitbox.
+     */
+    public synchronized void update(T element, int x, int y, int width, int height) {
+
+        int[] leaf = leaves.get(element);
+
+        if (leaf != null) {
+            move(leaf[0], x, y, width, height);
+        }
+    }
+
+    /**
+     * Removes an object from the tree.
+     * @param element the object to remove.
+     */
+    public synchronized void remove(T element) {
+
+        int[] leaf = leaves.remove(element);
+
+        if (leaf != null) {
+            removeLeaf(leaf[0]);
+            freeNode(leaf[0]);
+        }
+    }
+
+    /**
+     * @param element the object to look for.
+     * @return {@code true} if the object is indexed, otherwise {@code false}.
+     */
+    public synchronized boolean contains(T element) {
+        return leaves.containsKey(element);
+    }
+
+    /**
+     * @return the number of indexed objects.
+     */
+    public synchronized int size() {
+        return leaves.size();
+    }
+
+    /**
+     * Adds to the given list all the objects whose hitbox overlaps the given rectangle.
+     * @param x the x coordinate of the rectangle.
+     * @param y the y coordinate of the rectangle.
+     * @param width the rectangle's width.
+     * @param height the rectangle's height.
+     * @param out the list where to add the objects found.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void query(int x, int y, int width, int height, List<T> out) {
+
+        if (root == NULL || width <= 0 || height <= 0) {
+            return;
+        }
+
+        int top = 0;
+        stack[top++] = root;
+
+        while (top > 0) {
+            int node = stack[--top];
+
+            if (!overlapsFat(node, x, y, x + width, y + height)) {
+                continue;
+            }
+
+            if (isLeaf(node)) {
+                if (overlapsBox(node, x, y, width, height)) {
+                    out.add((T) elements[node]);
+                }
+            }
+            else {
+                top = push(top, left[node]);
+                top = push(top, right[node]);
+            }
+        }
+    }
+
+    /**
+     * Updates the leaf's real box, reinserting it only if it left its fat box.
+     */
+    private void move(int node, int x, int y, int width, int height) {
+
+        boolean contained = x >= minX[node] && y >= minY[node] && x + width <= maxX[node] && y + height <= maxY[node];
+
+        if (contained) {
+            boxX[node] = x;
+            boxY[node] = y;
+            boxW[node] = width;
+            boxH[node] = height;
+            return;
+        }
+
+        removeLeaf(node);
+        setBox(node, x, y, width, height);
+        insertLeaf(node);
+    }
+
+    private void setBox(int node, int x, int y, int width, int height) {
+        boxX[node] = x;
+        boxY[node] = y;
+        boxW[node] = width;
+        boxH[node] = height;
+
+        minX[node] = x - MARGIN;
+        minY[node] = y - MARGIN;
+        maxX[node] = x + width + MARGIN;
+        maxY[node] = y + height + MARGIN;
+    }
+
+    private void insertLeaf(int leaf) {
+
+        if (root == NULL) {
+            root = leaf;
+            parent[leaf] = NULL;
+            return;
+        }
+
+        // Looks for the best sibling, the one that grows the tree's perimeter the least
+        int index = root;
+
+        while (!isLeaf(index)) {
+            int child1 = left[index];
+            int child2 = right[index];
+
+            long perimeter = perimeter(index, index);
+            long combined = perimeter(index, leaf);
+
+            // Cost of creating a new parent for this node and the leaf
+            long cost = 2 * combined;
+
+            // Minimum cost of pushing the leaf further down the tree
+            long inheritance = 2 * (combined - perimeter);
+
+            long cost1 = perimeter(child1, leaf) + inheritance - (isLeaf(child1) ? 0 : perimeter(child1, child1));
+            long cost2 = perimeter(child2, leaf) + inheritance - (isLeaf(child2) ? 0 : perimeter(child2, child2));
+
+            if (cost < cost1 && cost < cost2) {
+                break;
+            }
+
+            index = cost1 < cost2 ? child1 : child2;
+        }
+
+        int sibling = index;
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+
+        parent[newParent] = oldParent;
+        elements[newParent] = null;
+        union(newParent, leaf, sibling);
+        height[newParent] = height[sibling] + 1;
+
+        if (oldParent != NULL) {
+            if (left[oldParent] == sibling) {
+                left[oldParent] = newParent;
+            }
+            else {
+                right[oldParent] = newParent;
+            }
+        }
+        else {
+            root = newParent;
+        }
+
+        left[newParent] = sibling;
+        right[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+
+        refit(parent[leaf]);
+    }
+
+    private void removeLeaf(int leaf) {
+
+        if (leaf == root) {
+            root = NULL;
+            return;
+        }
+
+        int oldParent = parent[leaf];
+        int grandParent = parent[oldParent];
+        int sibling = left[oldParent] == leaf ? right[oldParent] : left[oldParent];
+
+        if (grandParent != NULL) {
+            if (left[grandParent] == oldParent) {
+                left[grandParent] = sibling;
+            }
+            else {
+                right[grandParent] = sibling;
+            }
+
+            parent[sibling] = grandParent;
+            freeNode(oldParent);
+
+            refit(grandParent);
+        }
+        else {
+            root = sibling;
+            parent[sibling] = NULL;
+            freeNode(oldParent);
+        }
+    }
+
+    /**
+     * Walks up from the given node, balancing the tree and fixing the boxes and heights.
+     */
+    private void refit(int index) {
+        while (index != NULL) {
+            index = balance(index);
+
+            height[index] = 1 + Math.max(height[left[index]], height[right[index]]);
+            union(index, left[index], right[index]);
+
+            index = parent[index];
+        }
+    }
+
+    /**
+     * Rotates the subtree of the given node if one of its children is two levels higher than the other.
+     * @return the new root of the subtree.
+     */
+    private int balance(int a) {
+
+        if (isLeaf(a) || height[a] < 2) {
+            return a;
+        }
+
+        int b = left[a];
+        int c = right[a];
+        int diff = height[c] - height[b];
+
+        // Rotates C up
+        if (diff > 1) {
+            int f = left[c];
+            int g = right[c];
+
+            left[c] = a;
+            parent[c] = parent[a];
+            parent[a] = c;
+            replaceChild(parent[c], a, c);
+
+            if (height[f] > height[g]) {
+                right[c] = f;
+                right[a] = g;
+                parent[g] = a;
+                union(a, b, g);
+                union(c, a, f);
+
+                height[a] = 1 + Math.max(height[b], height[g]);
+                height[c] = 1 + Math.max(height[a], height[f]);
+            }
+            else {
+                right[c] = g;
+                right[a] = f;
+                parent[f] = a;
+                union(a, b, f);
+                union(c, a, g);
+
+                height[a] = 1 + Math.max(height[b], height[f]);
+                height[c] = 1 + Math.max(height[a], height[g]);
+            }
+
+            return c;
+        }
+
+        // Rotates B up
+        if (diff < -1) {
+            int d = left[b];
+            int e = right[b];
+
+            left[b] = a;
+            parent[b] = parent[a];
+            parent[a] = b;
+            replaceChild(parent[b], a, b);
+
+            if (height[d] > height[e]) {
+                right[b] = d;
+                left[a] = e;
+                parent[e] = a;
+                union(a, c, e);
+                union(b, a, d);
+
+                height[a] = 1 + Math.max(height[c], height[e]);
+                height[b] = 1 + Math.max(height[a], height[d]);
+            }
+            else {
+                right[b] = e;
+                left[a] = d;
+                parent[d] = a;
+                union(a, c, d);
+                union(b, a, e);
+
+                height[a] = 1 + Math.max(height[c], height[d]);
+                height[b] = 1 + Math.max(height[a], height[e]);
+            }
+
+            return b;
+        }
+
+        return a;
+    }
+
+    private void replaceChild(int node, int oldChild, int newChild) {
+        if (node == NULL) {
+            root = newChild;
+        }
+        else if (left[node] == oldChild) {
+            left[node] = newChild;
+        }
+        else {
+            right[node] = newChild;
+        }
+    }
+
+    private boolean isLeaf(int node) {
+        return left[node] == NULL;
+    }
+
+    /**
+     * Sets the fat box of the node to the union of the two given nodes.
+     */
+    private void union(int node, int a, int b) {
+        minX[node] = Math.min(minX[a], minX[b]);
+        minY[node] = Math.min(minY[a], minY[b]);
+        maxX[node] = Math.max(maxX[a], maxX[b]);
+        maxY[node] = Math.max(maxY[a], maxY[b]);
+    }
+
+    /**
+     * @return the perimeter of the union of the two given nodes.
+     */
+    private long perimeter(int a, int b) {
+        long w = (long) Math.max(maxX[a], maxX[b]) - Math.min(minX[a], minX[b]);
+        long h = (long) Math.max(maxY[a], maxY[b]) - Math.min(minY[a], minY[b]);
+
+        return 2 * (w + h);
+    }
+
+    private boolean overlapsFat(int node, int x1, int y1, int x2, int y2) {
+        return minX[node] < x2 && x1 < maxX[node] && minY[node] < y2 && y1 < maxY[node];
+    }
+
+    private boolean overlapsBox(int node, int x, int y, int width, int height) {
+        return boxW[node] > 0 && boxH[node] > 0 &&
+                boxX[node] < x + width && x < boxX[node] + boxW[node] &&
+                boxY[node] < y + height && y < boxY[node] + boxH[node];
+    }
+
+    private int push(int top, int node) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+
+        stack[top] = node;
+        return top + 1;
+    }
+
+    private int allocateNode() {
+
+        if (freeList == NULL) {
+            int oldCapacity = capacity;
+
+            allocate(capacity * 2);
+
+            // Links the new nodes in the free list
+            for(int i = oldCapacity; i < capacity - 1; i++) {
+                parent[i] = i + 1;
+            }
+            parent[capacity - 1] = NULL;
+            freeList = oldCapacity;
+        }
+
+        int node = freeList;
+        freeList = parent[node];
+
+        parent[node] = NULL;
+        left[node] = NULL;
+        right[node] = NULL;
+        height[node] = 0;
+
+        return node;
+    }
+
+    private void freeNode(int node) {
+        elements[node] = null;
+        height[node] = -1;
+        parent[node] = freeList;
+        freeList = node;
+    }
+
+    /**
+     * Grows the node arrays to the given capacity, keeping the existing nodes.
+     */
+    private void allocate(int newCapacity) {
+
+        minX = grow(minX, newCapacity);
+        minY = grow(minY, newCapacity);
+        maxX = grow(maxX, newCapacity);
+        maxY = grow(maxY, newCapacity);
+        parent = grow(parent, newCapacity);
+        left = grow(left, newCapacity);
+        right = grow(right, newCapacity);
+        height = grow(height, newCapacity);
+        boxX = grow(boxX, newCapacity);
+        boxY = grow(boxY, newCapacity);
+        boxW = grow(boxW, newCapacity);
+        boxH = grow(boxH, newCapacity);
+        elements = elements == null ? new Object[newCapacity] : Arrays.copyOf(elements, newCapacity);
+
+        // The first allocation starts with all the nodes free
+        if (capacity == 0) {
+            for(int i = 0; i < newCapacity - 1; i++) {
+                parent[i] = i + 1;
+            }
+            parent[newCapacity - 1] = NULL;
+            freeList = 0;
+        }
+
+        capacity = newCapacity;
+    }
+
+    private static int[] grow(int[] array, int newCapacity) {
+        return array == null ? new int[newCapacity] : Arrays.copyOf(array, newCapacity);
+    }
+}
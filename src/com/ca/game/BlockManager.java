@@ -20,6 +20,7 @@ import com.ca.entities.controllers.BlockController;
 import com.ca.errors.Logger;
 import com.ca.errors.resources.ResourceNotLoaded;
 import com.ca.maps.GameScene;
+import com.ca.maps.Scene;
 import com.ca.resources.ResourceLoader;
 import com.ca.resources.SpritesheetLoader;
 import com.ca.resources.animations.BlockAnimation;
@@ -30,6 +31,7 @@ import org.json.simple.JSONObject;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 
 /**
@@ -45,6 +47,12 @@ public class BlockManager {
      */
     private static final List<BlockData> blocks = new ArrayList<>();
 
+    /**
+     * The type of each block name, the index of its {@link BlockData} in {@link BlockManager#blocks}. The names are
+     * resolved once here, everything else refers to the blocks by type.
+     */
+    private static final HashMap<String, Integer> types = new HashMap<>();
+
     /**
      * The main block spritesheet from where all the blocks are being loaded.
      */
@@ -96,7 +104,7 @@ public class BlockManager {
             // Loads the texture animation, if the animation is static then the length is 1
             for(int i = 0; i < length; i++) {
                 // Only the x coordinate will be modified since ALL the animations are horizontal from left to right
-                animation[i] = img.getSubimage(pos.x + (width * i), pos.y, width, height);
+                animation[i] = SpritesheetLoader.getFrame(img, pos.x + (width * i), pos.y, width, height);
             }
 
             // Creates a list of a single animation
@@ -146,7 +154,7 @@ public class BlockManager {
 
                 Direction dir = Direction.valueOf((direction.toUpperCase()));
 
-                overlays.set(dir.ordinal(), img.getSubimage(pos.x, pos.y, width, height));
+                overlays.set(dir.ordinal(), SpritesheetLoader.getFrame(img, pos.x, pos.y, width, height));
             }
             catch(IllegalArgumentException unused) {
                 break;
@@ -268,9 +276,43 @@ public class BlockManager {
                 boolean pob = jsonBlock.get("printOnBlock") != null && (boolean) jsonBlock.get("printOnBlock");
                 Effect[] effects = loadEffects((JSONArray) jsonBlock.get("effects"));
 
-                blocks.add(new BlockData(name, animation, overlays, connectsWith, hitBox, effects, printPriority, pob));
+                register(new BlockData(name, animation, overlays, connectsWith, hitBox, effects, printPriority, pob));
             }
+
+            // The blocks are only loaded here, so their spritesheet is not kept in the cache
+            SpritesheetLoader.release(iBlock.texturePath());
+            SpritesheetLoader.invalidate(iBlock.texturePath());
+        }
+    }
+
+    /**
+     * Adds a block to the loaded ones, giving it the next type. A block with the same name of a loaded one replaces
+     * it, keeping its type, so the last definition is the one used.
+     * @param data the block to add.
+     */
+    private static void register(BlockData data) {
+
+        if (data.id == null) {
+            Logger.log(Logger.WARNING, "A block without id has been found, it will be ignored.");
+            return;
+        }
+
+        Integer type = types.get(data.id);
+
+        if (type != null) {
+            Logger.log(Logger.WARNING, "The block '" + data.id + "' has already been loaded, the new one will replace it.");
+            blocks.set(type, data);
+            return;
+        }
+
+        // The maps store the types in a short, see com.ca.maps.BlockPlane
+        if (blocks.size() >= Short.MAX_VALUE - 1) {
+            Logger.log(Logger.WARNING, "Too many blocks, '" + data.id + "' will be ignored.");
+            return;
         }
+
+        types.put(data.id, blocks.size());
+        blocks.add(data);
     }
 
     /**
@@ -283,21 +325,28 @@ public class BlockManager {
      */
     public static BlockController get(String name, int x, int y) {
 
-        BlockData target = null;
-        boolean found = false;
-
-        for(BlockData data : blocks) {
-            if (data.id.equals(name)) {
-                target = data;
-                found = true;
-            }
-        }
+        int type = getType(name);
 
-        if (!found) {
+        if (type < 0) {
             Logger.log(Logger.WARNING, "Block called '" + name + "' no found.");
             return null;
         }
 
+        return create(type, 0, x, y);
+    }
+
+    /**
+     * Creates a {@link BlockController} instance of the given type. The maps only store the type of each block (see
+     * {@link com.ca.maps.BlockPlane}), the controllers are created when something needs them.
+     * @param type the block type, see {@link BlockManager#getType(String)}.
+     * @param variant the texture of the block.
+     * @param x the x grid coordinate to assign to the block.
+     * @param y the y grid coordinate to assign to the block.
+     * @return the instance of the block controller.
+     */
+    public static BlockController create(int type, int variant, int x, int y) {
+
+        BlockData target = blocks.get(type);
         BlockController block = new BlockController(target);
 
         block.setGridPosition(x, y);
@@ -307,16 +356,42 @@ public class BlockManager {
             block.setHitBox(target.hitBox);
         }
 
+        block.setDefaultTexture(variant);
+
         return block;
     }
 
+    /**
+     * Gets the type of the block with the given name, a small number used by the maps instead of the name.
+     * @param name the block name.
+     * @return the block type, {@code -1} if there is no block with the given name.
+     */
+    public static int getType(String name) {
+        return types.getOrDefault(name, -1);
+    }
+
+    /**
+     * @return the number of block types, the types go from {@code 0} to this number excluded.
+     */
+    public static int getTypeCount() {
+        return blocks.size();
+    }
+
+    /**
+     * @param type the block type, see {@link BlockManager#getType(String)}.
+     * @return the data shared by all the blocks of the given type.
+     */
+    public static BlockData getData(int type) {
+        return blocks.get(type);
+    }
+
     /**
      * Checks if the {@link BlockManager} class has the requested block id.
      * @param id the block name.
      * @return {@code true} if it contains the requested block, otherwise {@code false}.
      */
     public static boolean has(String id) {
-        return blocks.stream().anyMatch(block -> block.id.equals(id));
+        return types.containsKey(id);
     }
 
     /**
@@ -337,5 +412,63 @@ public class BlockManager {
      *                     facing the opposite direction of the block.
      */
     public record BlockData(String id, BlockAnimation[] animation, BufferedImage[] overlays, String[] connectsWith, int[] hitBox,
-                            Effect[] effects, int printPriority, boolean printOnBlock) { }
+                            Effect[] effects, int printPriority, boolean printOnBlock) {
+
+        /**
+         * @return the texture's width.
+         */
+        public int getWidth() {
+            return animation[0].frameAt(Basic.DEFAULT_BLOCK_DIRECTION, 0).getWidth();
+        }
+
+        /**
+         * @return the texture's height.
+         */
+        public int getHeight() {
+            return animation[0].frameAt(Basic.DEFAULT_BLOCK_DIRECTION, 0).getHeight();
+        }
+
+        /**
+         * @return the {@link Scene.Layer} of the block's print priority.
+         */
+        public Scene.Layer getLayer() {
+            return Scene.Layer.getLayerFromPriority(printPriority);
+        }
+
+        /**
+         * @return {@code true} if the textures have more than one frame, otherwise {@code false}.
+         */
+        public boolean isAnimated() {
+            return animation[0].getLength(Basic.DEFAULT_BLOCK_DIRECTION) > 1;
+        }
+
+        /**
+         * @return {@code true} if the block never changes its look nor its print priority, see
+         * {@link BlockController#isStatic()}.
+         */
+        public boolean isStatic() {
+            return hitBox == null && !isAnimated();
+        }
+
+        /**
+         * @return {@code true} if the block has any overlays, otherwise {@code false}.
+         */
+        public boolean hasOverlays() {
+            return overlays != null && overlays.length != 0;
+        }
+
+        /**
+         * @param name the name of another block.
+         * @return {@code true} if the block can connect with the given one, see {@link BlockData#connectsWith()}.
+         */
+        public boolean isConnectionAllowed(String name) {
+            for(String connection : connectsWith) {
+                if (connection.equals(name)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
 }
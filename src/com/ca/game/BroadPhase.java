@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.game;
+
+import com.ca.entities.HitBox;
+import com.ca.entities.controllers.CharacterController;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Finds, once per tick, all the couples of characters that are close enough to touch each other. <br>
+ * Each character gets a box covering its frame and its hitbox (the interaction and item hitboxes are defined inside
+ * the frame) enlarged by {@link BroadPhase#MARGIN} pixels. The boxes are sorted along the x-axis, and only the
+ * boxes overlapping on x are compared (sweep and prune). Between two ticks the order barely changes, so it is kept
+ * and fixed with an insertion sort. <br>
+ * The result is a set of candidate contacts that movement, combat and interactions read instead of querying the
+ * characters again. It is valid as long as no character moves more than {@link BroadPhase#MARGIN} pixels before
+ * the next update.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class BroadPhase {
+
+    /**
+     * How many pixels the boxes are enlarged on each side, more than a character can move in a single tick.
+     */
+    public static final int MARGIN = 16;
+
+    /**
+     * The characters of the last update and their enlarged boxes, indexed by slot.
+     */
+    private CharacterController[] bodies = new CharacterController[0];
+    private int[] minX = new int[0];
+    private int[] minY = new int[0];
+    private int[] maxX = new int[0];
+    private int[] maxY = new int[0];
+    private int count = 0;
+
+    /**
+     * The slots sorted by {@link BroadPhase#minX}, kept between the updates.
+     */
+    private int[] order = new int[0];
+
+    /**
+     * The slot of each character, in a single element array so that the lookup doesn't box the index.
+     */
+    private final IdentityHashMap<CharacterController, int[]> slots = new IdentityHashMap<>();
+
+    /**
+     * The contacts of each slot: the contacts of slot {@code i} are in {@link BroadPhase#contacts} from
+     * {@code first[i]} to {@code first[i + 1]}.
+     */
+    private int[] first = new int[1];
+    private int[] contacts = new int[16];
+
+    /**
+     * The couples found by the sweep, before being split by slot.
+     */
+    private int[] pairs = new int[16];
+    private int pairCount = 0;
+
+    /**
+     * Recomputes all the contacts. This has to be called once per tick, before the characters move.
+     * @param characters all the characters in the game.
+     */
+    public synchronized void update(List<CharacterController> characters) {
+
+        if (!isSameSet(characters)) {
+            reset(characters);
+        }
+
+        for(int i = 0; i < count; i++) {
+            computeBox(i);
+        }
+
+        // Insertion sort, the order of the previous tick is almost sorted already
+        for(int i = 1; i < count; i++) {
+            int slot = order[i];
+            int j = i - 1;
+
+            while (j >= 0 && minX[order[j]] > minX[slot]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+
+            order[j + 1] = slot;
+        }
+
+        // Sweeps along x, the boxes after the first one starting past the current box's end can't overlap it
+        pairCount = 0;
+
+        for(int i = 0; i < count; i++) {
+            int a = order[i];
+
+            for(int j = i + 1; j < count; j++) {
+                int b = order[j];
+
+                if (minX[b] >= maxX[a]) {
+                    break;
+                }
+
+                if (minY[a] < maxY[b] && minY[b] < maxY[a]) {
+                    addPair(a, b);
+                }
+            }
+        }
+
+        buildContacts();
+    }
+
+    /**
+     * Adds to the given list the characters that could touch the given one, if the broad phase can answer for the
+     * given area.
+     * @param character the character to get the contacts of.
+     * @param x the x coordinate of the area the character will occupy.
+     * @param y the y coordinate of the area the character will occupy.
+     * @param width the area's width.
+     * @param height the area's height.
+     * @param out the list where to add the characters found.
+     * @return {@code true} if the list is complete, {@code false} if the character is unknown or the area is out of
+     * its box. In that case the caller has to look for the characters in another way.
+     */
+    public synchronized boolean getContacts(CharacterController character, int x, int y, int width, int height, List<CharacterController> out) {
+
+        int[] slot = slots.get(character);
+
+        if (slot == null) {
+            return false;
+        }
+
+        int s = slot[0];
+
+        if (x < minX[s] || y < minY[s] || x + width > maxX[s] || y + height > maxY[s]) {
+            return false;
+        }
+
+        for(int i = first[s]; i < first[s + 1]; i++) {
+            out.add(bodies[contacts[i]]);
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if the two characters can touch each other. Characters that are unknown to the broad phase are
+     * considered close, since nothing can be told about them.
+     * @param a the first character.
+     * @param b the second character.
+     * @return {@code false} if the two characters are surely apart, otherwise {@code true}.
+     */
+    public synchronized boolean mayTouch(CharacterController a, CharacterController b) {
+
+        int[] slotA = slots.get(a);
+        int[] slotB = slots.get(b);
+
+        if (slotA == null || slotB == null) {
+            return true;
+        }
+
+        for(int i = first[slotA[0]]; i < first[slotA[0] + 1]; i++) {
+            if (contacts[i] == slotB[0]) {
+                return true;
+            }
+        }
+
+        return slotA[0] == slotB[0];
+    }
+
+    /**
+     * @return the number of candidate contacts found by the last update.
+     */
+    public synchronized int getPairCount() {
+        return pairCount;
+    }
+
+    /**
+     * Checks if the given characters are the same of the last update, in the same order.
+     */
+    private boolean isSameSet(List<CharacterController> characters) {
+
+        if (characters.size() != count) {
+            return false;
+        }
+
+        for(int i = 0; i < count; i++) {
+            if (bodies[i] != characters.get(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Assigns a new slot to each character, this only happens when characters are added or removed.
+     */
+    private void reset(List<CharacterController> characters) {
+
+        count = characters.size();
+
+        bodies = characters.toArray(new CharacterController[0]);
+        minX = new int[count];
+        minY = new int[count];
+        maxX = new int[count];
+        maxY = new int[count];
+        order = new int[count];
+        first = new int[count + 1];
+
+        slots.clear();
+
+        for(int i = 0; i < count; i++) {
+            order[i] = i;
+            slots.put(bodies[i], new int[] { i });
+        }
+    }
+
+    private void computeBox(int slot) {
+
+        CharacterController character = bodies[slot];
+        HitBox hitBox = character.getHitBox();
+
+        // Characters without a hitbox never touch anyone, they are moved at the end of the order
+        if (hitBox == null) {
+            minX[slot] = minY[slot] = Integer.MAX_VALUE;
+            maxX[slot] = maxY[slot] = Integer.MIN_VALUE;
+            return;
+        }
+
+        int x = character.getPosition().x;
+        int y = character.getPosition().y;
+
+        minX[slot] = Math.min(x, hitBox.getX()) - MARGIN;
+        minY[slot] = Math.min(y, hitBox.getY()) - MARGIN;
+        maxX[slot] = Math.max(x + character.getWidth(), hitBox.getX() + hitBox.getWidth()) + MARGIN;
+        maxY[slot] = Math.max(y + character.getHeight(), hitBox.getY() + hitBox.getHeight()) + MARGIN;
+    }
+
+    private void addPair(int a, int b) {
+
+        if (pairCount * 2 + 2 > pairs.length) {
+            pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        }
+
+        pairs[pairCount * 2] = a;
+        pairs[pairCount * 2 + 1] = b;
+        pairCount++;
+    }
+
+    /**
+     * Splits the couples by slot, each couple is stored in the contacts of both its characters.
+     */
+    private void buildContacts() {
+
+        Arrays.fill(first, 0);
+
+        for(int i = 0; i < pairCount * 2; i++) {
+            first[pairs[i] + 1]++;
+        }
+
+        for(int i = 0; i < count; i++) {
+            first[i + 1] += first[i];
+        }
+
+        if (contacts.length < pairCount * 2) {
+            contacts = new int[Math.max(contacts.length * 2, pairCount * 2)];
+        }
+
+        // Uses the end of each range as the write cursor, then shifts it back
+        for(int i = 0; i < pairCount; i++) {
+            int a = pairs[i * 2];
+            int b = pairs[i * 2 + 1];
+
+            contacts[first[a]++] = b;
+            contacts[first[b]++] = a;
+        }
+
+        for(int i = count; i > 0; i--) {
+            first[i] = first[i - 1];
+        }
+        first[0] = 0;
+    }
+}
@@ -41,6 +41,15 @@ public class CameraManager {
         camera[0] = new Camera("mainCamera");
     }
 
+    /**
+     * Stores the position of all the cameras before a simulation tick, see {@link GameLoop#interpolate(int, int)}.
+     */
+    public static void savePositions() {
+        for (Camera c : camera) {
+            c.savePosition();
+        }
+    }
+
     /**
      * Looks for the requested camera in the camera array.
      * @param name The camera's name to search for.
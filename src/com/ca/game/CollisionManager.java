@@ -15,9 +15,7 @@
  */
 package com.ca.game;
 
-import com.ca.constants.Position;
 import com.ca.entities.HitBox;
-import com.ca.entities.controllers.BlockController;
 import com.ca.entities.controllers.CharacterController;
 import com.ca.entities.controllers.ItemController;
 import com.ca.errors.Logger;
@@ -31,9 +29,9 @@ import java.util.List;
  * This class handles all the collisions between in game objects. It provides useful methods to interact directly with
  * the game's managers ({@link EntityManager},{@link BlockManager}...) and it's mainly used to check whether the current
  * player is in touch with any other in game objects. <br>
- * <b>IMPORTANT: </b>All 'nearby' checks are made using the {@link CollisionManager#CHECK_RADIUS} distance. Also, this
- * inspection is made from the upper left corner of each block, so the right and the lower side will have <u>{@code 1} block
- * less reach</u> than the other directions.
+ * The characters and the items are looked for in the {@link AABBTree} of their manager with the exact rectangle
+ * being checked (a hitbox, the path of a move), and the characters that can touch each other in the current tick
+ * come from the {@link BroadPhase}.
  * @since 1.0.00
  * @author Macaluso Francesco, Emir Brkic
  */
@@ -45,24 +43,51 @@ public class CollisionManager {
     private static final Rectangle ghost = new Rectangle();
 
     /**
-     * Radius for the methods checking the nearby blocks.
+     * How many blocks beyond the window a block is still considered in view, see
+     * {@link com.ca.resources.Utility#isBlockInView(com.ca.entities.states.BlockState, int)}.
      */
     public static final int CHECK_RADIUS = 2;
 
     /**
-     * Checks the intersection of the given hitbox with the items nearby the given position.
+     * Reused by the entity probes so that checking a move doesn't allocate a new list. The game loop checks the moves
+     * on its simulation channel only, the list is kept per thread so that moving a character from another thread
+     * (i.e. a test) can't clear it in the middle of a check.
+     */
+    private static final ThreadLocal<List<CharacterController>> nearby = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * Candidate contacts between the characters, recomputed once per tick.
+     */
+    private static final BroadPhase broadPhase = new BroadPhase();
+
+    /**
+     * Recomputes the candidate contacts between all the characters. This has to be called once per tick, before
+     * the characters move.
+     */
+    public static void updateContacts() {
+        broadPhase.update(EntityManager.get());
+    }
+
+    /**
+     * Checks if two characters are close enough to touch each other, according to the last
+     * {@link CollisionManager#updateContacts()}. Use it to skip the exact checks between far characters.
+     * @param a the first character.
+     * @param b the second character.
+     * @return {@code false} if the two characters are surely apart, otherwise {@code true}.
+     */
+    public static boolean mayTouch(CharacterController a, CharacterController b) {
+        return broadPhase.mayTouch(a, b);
+    }
+
+    /**
+     * Checks the intersection of the given hitbox with the items on the ground around it.
      * @param hitBox the item's interaction hitbox.
-     * @param position the position where to check around.
-     * @return the collection containing all the block near the given position. The collection is mutable.
+     * @return the collection containing all the items intersecting the given hitbox. The collection is mutable.
      */
-    public static List<ItemController> checkNearbyIntersectionItem(HitBox hitBox, Position position) {
+    public static List<ItemController> checkNearbyIntersectionItem(HitBox hitBox) {
         List<ItemController> itemIntersectionList = new ArrayList<>();
 
-        for (ItemController item : ItemManager.getNearbyItem(position)) {
-            if (intersect(hitBox, item.getHitBox())) {
-                itemIntersectionList.add(item);
-            }
-        }
+        ItemManager.getItems(hitBox.getX(), hitBox.getY(), hitBox.getWidth(), hitBox.getHeight(), itemIntersectionList);
 
         return itemIntersectionList;
     }
@@ -93,36 +118,112 @@ public class CollisionManager {
     }
 
     /**
-     * Checks if the given entity's hitbox is colliding with other block's hitbox.
-     * @param clone the clone to check the collisions for.
-     * @return {@code true} if the given entity intersects any solid block, otherwise it returns {@code false}.
+     * Sweeps the hitbox of the given entity along the given move, against the solid blocks and the other entities.
+     * Unlike the overlap checks, this one can't skip thin hitboxes when the move is longer than them, and tells how
+     * far the entity can move before the impact. The entity itself is not moved.
+     * @param entity the moving entity.
+     * @param dx the x component of the move.
+     * @param dy the y component of the move.
+     * @param out the sweep where to store the result, it is reset before the test.
+     * @return the given sweep, holding the time of impact and the contact normal.
      */
-    public static boolean blocksInteraction(CharacterController clone) {
+    public static Sweep sweep(CharacterController entity, int dx, int dy, Sweep out) {
+
+        out.reset(dx, dy);
+
+        HitBox hitBox = entity.getHitBox();
+
+        if (hitBox == null) {
+            Logger.log(Logger.MODE_SALVAGE, new InputNotValid(HitBox.class, "null"));
+            return out;
+        }
+
+        int x = hitBox.getX();
+        int y = hitBox.getY();
+        int w = hitBox.getWidth();
+        int h = hitBox.getHeight();
 
-        // Checks if the move is valid, if it is it moves the model
-        for(BlockController block : SceneManager.getGrid().getBlocks()) {
-            if(block != null && CollisionManager.intersect(clone.getHitBox(), block.getHitBox())) {
-                return true;
+        SceneManager.getGrid().getCollisionLayer().sweep(x, y, w, h, dx, dy, out);
+
+        // Only the characters overlapping the whole path of the move can be hit
+        List<CharacterController> characters = nearby.get();
+        getCharacters(entity, Math.min(x, x + dx), Math.min(y, y + dy), w + Math.abs(dx), h + Math.abs(dy), characters);
+
+        try {
+            for(int i = 0; i < characters.size(); i++) {
+                CharacterController other = characters.get(i);
+                HitBox target = other.getHitBox();
+
+                if (target != null && !entity.equals(other)) {
+                    out.test(x, y, w, h, target.getX(), target.getY(), target.getWidth(), target.getHeight());
+                }
             }
         }
+        finally {
+            characters.clear();
+        }
 
-        return false;
+        return out;
     }
 
     /**
-     * Checks the collision of a given entity with all other entities.
-     * @param clone the current entity to check the collisions for.
-     * @return {@code true} if the hitbox of the given entity is intersecting someone else's, otherwise {@code false}.
+     * Adds to the given (empty) list all the characters whose hitbox overlaps the given rectangle, which is an area
+     * reached by the given character. The character itself is included if it overlaps the area. The contacts of the
+     * broad phase are used when they cover the area, otherwise the characters are looked for in the tree.
      */
-    public static boolean entitiesInteraction(CharacterController clone) {
+    private static void getCharacters(CharacterController entity, int x, int y, int width, int height, List<CharacterController> out) {
+
+        if (!broadPhase.getContacts(entity, x, y, width, height, out)) {
+            EntityManager.getCharacters(x, y, width, height, out);
+            return;
+        }
 
-        // Checks if the move is valid, if it is it moves the model
-        for(CharacterController entity : EntityManager.getNearbyCharacter(clone.getPosition())) {
-            if(intersect(clone.getHitBox(), entity.getHitBox()) && !clone.equals(entity)) {
-                return true;
+        out.add(entity);
+
+        // Keeps only the candidates that really overlap the area
+        int kept = 0;
+
+        for(int i = 0; i < out.size(); i++) {
+            HitBox target = out.get(i).getHitBox();
+
+            if (target != null && target.getWidth() > 0 && target.getHeight() > 0 && width > 0 && height > 0 &&
+                    x < target.getX() + target.getWidth() && target.getX() < x + width &&
+                    y < target.getY() + target.getHeight() && target.getY() < y + height) {
+                out.set(kept++, out.get(i));
             }
         }
 
-        return false;
+        while (out.size() > kept) {
+            out.remove(out.size() - 1);
+        }
+    }
+
+    /**
+     * Returns all the characters whose hitbox intersects the given one.
+     * @param hitBox the hitbox to check.
+     * @return the collection containing all the characters intersecting the given hitbox. The collection is mutable.
+     */
+    public static List<CharacterController> checkIntersectionCharacter(HitBox hitBox) {
+        List<CharacterController> characterIntersectionList = new ArrayList<>();
+
+        EntityManager.getCharacters(hitBox.getX(), hitBox.getY(), hitBox.getWidth(), hitBox.getHeight(), characterIntersectionList);
+
+        return characterIntersectionList;
+    }
+
+    /**
+     * Returns all the characters whose hitbox intersects the given one, which is an area reached by the given
+     * character (i.e. the action hitbox of its weapon). The candidate contacts of the character are used when possible.
+     * @param owner the character reaching the area.
+     * @param hitBox the hitbox to check.
+     * @return the collection containing all the characters intersecting the given hitbox, the owner included if it
+     * intersects it. The collection is mutable.
+     */
+    public static List<CharacterController> checkIntersectionCharacter(CharacterController owner, HitBox hitBox) {
+        List<CharacterController> characterIntersectionList = new ArrayList<>();
+
+        getCharacters(owner, hitBox.getX(), hitBox.getY(), hitBox.getWidth(), hitBox.getHeight(), characterIntersectionList);
+
+        return characterIntersectionList;
     }
 }
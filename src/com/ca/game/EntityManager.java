@@ -19,14 +19,13 @@ import com.ca.constants.Assets;
 import com.ca.constants.Basic;
 import com.ca.constants.Direction;
 import com.ca.constants.Position;
+import com.ca.entities.HitBox;
 import com.ca.entities.characters.Player;
 import com.ca.entities.controllers.CharacterController;
 import com.ca.errors.Logger;
 import com.ca.errors.general.CharacterNotFound;
 
-import java.awt.*;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -41,6 +40,11 @@ public class EntityManager {
      */
     private static final List<CharacterController> entities = new ArrayList<>();
 
+    /**
+     * Hitboxes of all the entities, used by the collision queries of {@link CollisionManager}.
+     */
+    private static final AABBTree<CharacterController> bodies = new AABBTree<>();
+
     public static final Player subject;
 
     static {
@@ -48,6 +52,7 @@ public class EntityManager {
         subject.setPosition(-Basic.DEFAULT_BLOCK_WIDTH / 2, -Basic.DEFAULT_BLOCK_HEIGHT);
 
         entities.add(subject);
+        addBody(subject);
     }
 
     /**
@@ -65,6 +70,7 @@ public class EntityManager {
 
         if (!entities.contains(entity)) {
             entities.add(entity);
+            addBody(entity);
         }
         else {
             Logger.log(Logger.WARNING, "The entity '" + entity.getName() + "' is already present in the EntityManager.");
@@ -72,18 +78,29 @@ public class EntityManager {
     }
 
     /**
-     * Renders all the entity on the map. <br>
+     * Adds to the given list all the entities that can be seen in the {@link Viewport}, in no particular order. They
+     * are published to the renderer by the {@link WorldSnapshot}. <br>
      * WARNING: This method has to be updated with an entity group to represent all the entities of a certain scene.
-     * @param g the graphics where to draw the entities on.
+     * @param view the viewport to look into.
+     * @param out the list where to add the visible entities.
      */
-    public static void renderAll(Graphics g) {
-        List<CharacterController> temp = new ArrayList<>(entities);
+    public static void getVisible(Viewport.Bounds view, List<CharacterController> out) {
+
+        int from = out.size();
 
-        temp.sort(Comparator.comparingInt(CharacterController::getPrintPriority));
-        temp.sort(Comparator.comparingInt(c -> c.getPosition().y));
+        // The hitbox is inside the frame, and a frame is at most as big as two margins
+        final int reach = 3 * Viewport.MARGIN;
 
-        for(var character : temp) {
-            character.render(g);
+        bodies.query(view.getX() - reach, view.getY() - reach, view.width() + reach * 2, view.height() + reach * 2, out);
+
+        // Keeps the characters whose frame, name or message box can be on screen
+        for(int i = out.size() - 1; i >= from; i--) {
+            CharacterController c = out.get(i);
+
+            if (!view.isVisible(c.getPosition().x - Viewport.MARGIN, c.getPosition().y - Viewport.MARGIN,
+                    c.getWidth() + Viewport.MARGIN * 2, c.getHeight() + Viewport.MARGIN * 2)) {
+                out.remove(i);
+            }
         }
     }
 
@@ -104,54 +121,66 @@ public class EntityManager {
         throw new CharacterNotFound(name);
     }
 
+    public static List<CharacterController> get() {
+        return entities;
+    }
+
     /**
-     * Looks for the given entity name in the list.
-     * @param x the entity's name.
-     * @param y the entity's name.
-     * @return the {@link CharacterController} instance of the requested entity. If the name wasn't found then
-     * it returns {@code null}.
+     * Updates the entity's hitbox in the collision tree. This has to be called every time an entity changes position,
+     * entities that are not managed by this class are ignored.
+     * @param entity the entity that moved.
      */
-    public static CharacterController[] get(int x, int y ) {
-        Position p = new Position(x, y);
+    public static void updatePosition(CharacterController entity) {
 
-        List<CharacterController> matches = new ArrayList<>();
+        HitBox hitBox = entity.getHitBox();
 
-        for(CharacterController ch : entities) {
-            if ((Position.toGrid(ch.getPosition())).equals(p)) {
-                matches.add(ch);
-            }
+        if (hitBox != null) {
+            bodies.update(entity, hitBox.getX(), hitBox.getY(), hitBox.getWidth(), hitBox.getHeight());
         }
+    }
 
-        return matches.toArray(new CharacterController[0]);
+    /**
+     * Stores the position of all the entities before a simulation tick, see {@link GameLoop#interpolate(int, int)}.
+     */
+    public static void savePositions() {
+        for(CharacterController entity : entities) {
+            entity.getStateManager().savePosition();
+        }
     }
 
-    public static List<CharacterController> get() {
-        return entities;
+    /**
+     * Restarts the animations of the characters whose action or direction changed during the tick, and ends the
+     * ones that have been played entirely, see {@link CharacterController#updateAnimation()}. This is called by the
+     * {@link GameLoop} once per tick.
+     */
+    public static void updateAnimations() {
+        for(CharacterController entity : entities) {
+            entity.updateAnimation();
+        }
     }
 
     /**
-     * Returns all the nearby blocks of a certain position
-     * @param position the position to search from.
-     * @return a list of all blocks around the given position that have a valid hitbox.
+     * Adds to the given list all the characters whose hitbox overlaps the given rectangle.
+     * @param x the absolute x coordinate of the rectangle.
+     * @param y the absolute y coordinate of the rectangle.
+     * @param width the rectangle's width.
+     * @param height the rectangle's height.
+     * @param out the list where to add the characters found.
      */
-    public static List<CharacterController> getNearbyCharacter(Position position) {
+    public static void getCharacters(int x, int y, int width, int height, List<CharacterController> out) {
+        bodies.query(x, y, width, height, out);
+    }
 
-        Position girdCenterPos = Position.toGrid(position);
+    /**
+     * Adds the entity's hitbox to the collision tree, entities without a hitbox are ignored.
+     */
+    private static void addBody(CharacterController entity) {
 
-        List<CharacterController> character = new ArrayList<>();
+        HitBox hitBox = entity.getHitBox();
 
-        for(int x = girdCenterPos.x - CollisionManager.CHECK_RADIUS; x <= girdCenterPos.x + CollisionManager.CHECK_RADIUS; x++) {
-            for(int y = girdCenterPos.y - CollisionManager.CHECK_RADIUS; y <= girdCenterPos.y + CollisionManager.CHECK_RADIUS; y++) {
-                CharacterController[] characters = get(x, y);
-                for (CharacterController characterController : characters) {
-                    if (characters[0].getHitBox() != null) {
-                        character.add(characterController);
-                    }
-                }
-            }
+        if (hitBox != null) {
+            bodies.add(entity, hitBox.getX(), hitBox.getY(), hitBox.getWidth(), hitBox.getHeight());
         }
-
-        return character;
     }
 
     public static void moveBot() {
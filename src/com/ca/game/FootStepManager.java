@@ -19,15 +19,11 @@ import com.ca.constants.Assets;
 import com.ca.constants.Basic;
 import com.ca.constants.Position;
 import com.ca.entities.FootStep;
-import com.ca.errors.Logger;
-import com.ca.errors.general.UnknownException;
 import com.ca.resources.SpritesheetLoader;
 
-import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.ConcurrentModificationException;
 import java.util.List;
 
 public class FootStepManager {
@@ -38,9 +34,17 @@ public class FootStepManager {
 
     private static final java.util.Queue<FootStep> toBeRemoved = new ArrayDeque<>();
 
+    /**
+     * Grid-cell buckets of the footsteps, used to draw only the footsteps in view.
+     */
+    private static final SpatialHash<FootStep> grid = new SpatialHash<>();
+
     public static void add(Position position) {
         if(!tooNear(new FootStep(stepsTexture,position,System.currentTimeMillis()))) {
-            steps.add(new FootStep(stepsTexture, position, System.currentTimeMillis()));
+            FootStep step = new FootStep(stepsTexture, position, System.currentTimeMillis());
+
+            steps.add(step);
+            grid.add(step, position.x, position.y);
         }
     }
 
@@ -66,21 +70,40 @@ public class FootStepManager {
 
     private static void removeQueued() {
         while(!toBeRemoved.isEmpty()) {
-            steps.remove(toBeRemoved.remove());
+            FootStep step = toBeRemoved.remove();
+
+            steps.remove(step);
+            grid.remove(step);
         }
     }
 
-    public static void renderAll(Graphics g) {
-        try {
-            for (FootStep step : steps) {
-                step.render(g);
-            }
-        }
-        catch(ConcurrentModificationException e) {
-            Logger.log(Logger.MODE_SALVAGE, new UnknownException("Concurrent modification. " + e.getMessage()));
-        }
+    /**
+     * Adds to the given list all the footsteps that can be seen in the {@link Viewport}, after removing the old ones.
+     * They are drawn by the {@link com.ca.gui.RenderQueue}.
+     * @param view the viewport to look into.
+     * @param out the list where to add the visible footsteps.
+     */
+    public static void getVisible(Viewport.Bounds view, List<FootStep> out) {
 
         removeQueued();
+
+        int from = out.size();
+
+        // Footsteps are drawn centered on their position
+        int width = stepsTexture.getWidth();
+        int height = stepsTexture.getHeight();
+
+        grid.queryRect(view.getX() - Viewport.MARGIN, view.getY() - Viewport.MARGIN,
+                view.width() + Viewport.MARGIN * 2, view.height() + Viewport.MARGIN * 2, out);
+
+        for(int i = out.size() - 1; i >= from; i--) {
+            FootStep step = out.get(i);
+
+            if (!view.isOnScreen(step.getPosition().x + view.originX() - width / 2,
+                    step.getPosition().y + view.originY() - height / 2, width, height)) {
+                out.remove(i);
+            }
+        }
     }
 
     public static void initialize() {
@@ -15,32 +15,62 @@
  */
 package com.ca.game;
 
-import com.ca.constants.Clock;
+import com.ca.constants.Basic;
 import com.ca.errors.Logger;
+import com.ca.events.GameKeyHandler;
+import com.ca.events.movements.MoveHandler;
+import com.ca.resources.animations.AnimationClock;
 import com.ca.ui.GameWindow;
 
 /**
- * This class implements the basic game loop, the refresh rate is set to a fixed amount ({@code 60}).
+ * This class implements the basic game loop. The game is simulated at a fixed rate ({@link Basic#GAME_TPS} ticks a
+ * second), while the frames are drawn at most {@link Basic#GAME_FPS} times a second. Each rate is a channel of the
+ * {@link TickScheduler}, and the thread sleeps until the next channel is due. <br>
+ * Each tick moves the game forward by the same amount of time, so the game speed doesn't depend on the frame rate:
+ * when the frames are slow more ticks are run before the next frame, when they are fast some frames are drawn
+ * without a tick in between. Those frames draw the moving objects between their position of the previous tick and
+ * the current one, see {@link GameLoop#interpolate(int, int)}.
  * @since 1.0.00
  * @author Macaluso Francesco
  */
 public class GameLoop implements Runnable {
 
+    /**
+     * Objects that move more than this many pixels in a tick have been moved on purpose (i.e. teleported), they are
+     * drawn in their new position right away.
+     */
+    private static final int MAX_INTERPOLATION = Basic.DEFAULT_BLOCK_WIDTH;
+
+    /**
+     * How far the current frame is between the last tick and the next one, from {@code 0} to {@code 1}.
+     */
+    private static volatile double alpha = 1;
+
     /**
      * The components to refresh {@code FPS} times a second.
      */
     private final GameWindow source;
 
+    /**
+     * Reads the player's inputs, once per tick.
+     */
+    private final MoveHandler moveHandler;
+
+    private final TickScheduler.Channel input = TickScheduler.get(TickScheduler.INPUT);
+    private final TickScheduler.Channel simulation = TickScheduler.get(TickScheduler.SIMULATION);
+    private final TickScheduler.Channel render = TickScheduler.get(TickScheduler.RENDER);
+
     /**
      * Creates a game loop associated with the given component.
      * @param component the component to be refreshed and synchronized with the game loop.
      */
     public GameLoop(GameWindow component) {
         this.source = component;
+        this.moveHandler = new MoveHandler(EntityManager.subject, GameKeyHandler.getScreenshotListener());
     }
 
     /**
-     * The main method that executes {@code nextFrame()} FPS times a second.
+     * The main method that runs the simulation ticks and draws the frames.
      */
     public void run() {
         // Removes the bottom white line on Windows 11 systems.
@@ -48,17 +78,89 @@ public class GameLoop implements Runnable {
 
         Logger.log(Logger.MESSAGE, "The game thread has started...");
 
+        input.reset();
+        simulation.reset();
+        render.reset();
+
         while (!Thread.currentThread().isInterrupted()) {
-            if (Clock.tick()) {
+            long now = System.nanoTime();
+
+            if (input.poll(now) > 0) {
+                GameKeyHandler.poll();
+                moveHandler.handleShortcuts();
+
+                // The shortcuts tapped since the last input tick have been read
+                GameKeyHandler.clearShortcutStrokes();
+            }
+
+            // Update phase, catches up with the real time
+            for(int ticks = simulation.poll(now); ticks > 0; ticks--) {
+                update();
+            }
+
+            // Render phase
+            if (render.poll(now) > 0) {
+                alpha = simulation.getProgress(now);
+
                 nextFrame();
 
-                source.repaint();
+                // Draws the frame right away, or lets Swing draw it when it can
+                if (source.isActiveRendering()) {
+                    source.renderFrame();
+                }
+                else {
+                    source.repaint();
+                }
             }
+
+            TickScheduler.awaitNext(input, simulation, render);
         }
 
         Logger.log(Logger.WARNING, "The thread just exited.");
     }
 
+    /**
+     * Moves the whole game forward by a single tick.
+     */
+    private void update() {
+        tick(moveHandler);
+    }
+
+    /**
+     * Moves the whole game forward by a single tick. This has to be called by the game thread only, the game loop
+     * calls it {@link Basic#GAME_TPS} times a second.
+     * @param moveHandler the handler of the player's inputs.
+     */
+    public static void tick(MoveHandler moveHandler) {
+
+        // Keeps the positions of the last tick for the interpolation
+        EntityManager.savePositions();
+        ItemManager.savePositions();
+        CameraManager.savePositions();
+
+        // The animations move forward once per tick, however many frames are drawn
+        AnimationClock.advance();
+
+        GameKeyHandler.poll();
+        moveHandler.update();
+
+        // The keys tapped since the last tick have been read
+        GameKeyHandler.clearStrokes();
+
+        // Handles the bot movement
+        if (Basic.BOT_FLAG) {
+            EntityManager.moveBot();
+        }
+
+        // The animations restart only if the action or the direction at the end of the tick changed
+        EntityManager.updateAnimations();
+        ItemManager.updateAnimations();
+
+        FootStepManager.removeOldStep();
+
+        // Hands the new state of the world to the renderer
+        WorldSnapshot.publish();
+    }
 
     /**
      * The content of this method will be called each frame.
@@ -66,4 +168,19 @@ public class GameLoop implements Runnable {
     private void nextFrame() {
         Logger.see();
     }
+
+    /**
+     * Computes the coordinate of a moving object in the current frame.
+     * @param previous the coordinate at the previous tick.
+     * @param current the coordinate at the current tick.
+     * @return the coordinate between the two, based on how much time has passed since the current tick.
+     */
+    public static int interpolate(int previous, int current) {
+
+        if (Math.abs(current - previous) > MAX_INTERPOLATION) {
+            return current;
+        }
+
+        return (int) Math.round(previous + (current - previous) * alpha);
+    }
 }
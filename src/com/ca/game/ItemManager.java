@@ -17,18 +17,12 @@ package com.ca.game;
 
 import com.ca.constants.Assets;
 import com.ca.constants.Basic;
-import com.ca.constants.Position;
+import com.ca.entities.HitBox;
 import com.ca.entities.controllers.ItemController;
 import com.ca.errors.Logger;
-import com.ca.maps.Scene;
-import com.ca.resources.Utility;
 
-import java.awt.*;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Handles all the items in the game.
@@ -40,6 +34,18 @@ public class ItemManager {
 
     private static final List<ItemController> items = new ArrayList<>();
 
+    /**
+     * Hitboxes of the items lying on the ground, used by the collision queries of {@link CollisionManager} and to
+     * find the visible items. Equipped items follow their character, so they are removed from here when equipped and
+     * added back when they are dropped.
+     */
+    private static final AABBTree<ItemController> bodies = new AABBTree<>();
+
+    /**
+     * The items equipped by a character, which are not in the ground index.
+     */
+    private static final List<ItemController> equipped = new ArrayList<>();
+
     /**
      * Adds a certain item to the list.
      * @param item the item to add.
@@ -53,93 +59,127 @@ public class ItemManager {
 
         items.add(item);
 
+        if (!item.isEquipped()) {
+            addBody(item);
+        }
+        else {
+            equipped.add(item);
+        }
+
         Logger.log(Logger.MESSAGE, "The item '" + item.getName() + "' has been added to the ItemManager.");
     }
 
     /**
-     * Looks for the given entity name in the list.
-     * @param x the entity's name.
-     * @param y the entity's name.
-     * @return an {@link ItemController} array with all the items in the given coordinates,
-     * otherwise, if there are no item it returns an empty array.
+     * Updates the item's place in the ground index. This has to be called every time an item changes position, items
+     * that are not on the ground are ignored.
+     * @param item the item that moved.
      */
-    public static ItemController[] get(int x, int y ) {
-        Position p = new Position(x, y);
-
-        List<ItemController> matches = new ArrayList<>();
-
+    public static void updatePosition(ItemController item) {
+        if (bodies.contains(item)) {
+            addBody(item);
+        }
+    }
 
+    /**
+     * Stores the position of all the items before a simulation tick, see {@link GameLoop#interpolate(int, int)}.
+     */
+    public static void savePositions() {
         for(ItemController item : items) {
-            Position girdCenterPos = Position.toGrid(item.getPosition());
-            if (girdCenterPos.equals(p)) {
-                matches.add(item);
-            }
+            item.getState().savePosition();
         }
+    }
 
-        return matches.toArray(new ItemController[0]);
+    /**
+     * Restarts the animations of the items whose action or direction changed during the tick, see
+     * {@link com.ca.entities.states.EntityState#settleAnimation()}. This is called by the {@link GameLoop} once per
+     * tick.
+     */
+    public static void updateAnimations() {
+        for(ItemController item : items) {
+            item.getState().settleAnimation();
+        }
     }
 
     /**
-     * Returns all the nearby blocks of a certain position
-     * @param position the position to search from.
-     * @return a list of all blocks around the given position that have a valid hitbox.
+     * Adds to the given list all the items on the ground whose hitbox overlaps the given rectangle.
+     * @param x the absolute x coordinate of the rectangle.
+     * @param y the absolute y coordinate of the rectangle.
+     * @param width the rectangle's width.
+     * @param height the rectangle's height.
+     * @param out the list where to add the items found.
      */
-    public static List<ItemController> getNearbyItem(Position position) {
-        final int radius = 2;
+    public static void getItems(int x, int y, int width, int height, List<ItemController> out) {
+        bodies.query(x, y, width, height, out);
+    }
 
-        // FIXME: there cannot be more than one block with the hitbox per block
-        Position girdCenterPos = Position.toGrid(position);
+    /**
+     * Removes the item from the ground index, this is called when a character equips the item.
+     * @param item the item picked up.
+     */
+    public static void pickUp(ItemController item) {
+        bodies.remove(item);
 
-        List<ItemController> item = new ArrayList<>();
+        if (items.contains(item) && !equipped.contains(item)) {
+            equipped.add(item);
+        }
+    }
 
-        for(int x = girdCenterPos.x - radius; x <= girdCenterPos.x + radius; x++) {
-            for(int y = girdCenterPos.y - radius; y <= girdCenterPos.y + radius; y++) {
-                ItemController[] blockItems = get(x, y);
+    /**
+     * Adds the item to the ground index at its current position, this is called when a character drops the item.
+     * @param item the dropped item.
+     */
+    public static void drop(ItemController item) {
+        equipped.remove(item);
 
-                for (ItemController blockItem : blockItems) {
-                    if (blockItems[0].getHitBox() != null) {
-                        item.add(blockItem);
-                    }
-                }
-            }
+        if (items.contains(item)) {
+            addBody(item);
         }
-
-        return item;
     }
 
     /**
-     * Renders all the item in the background, this is done before the entities render.
-     * @param g the graphics to draw the items on.
+     * Adds the item's hitbox to the ground index, or moves it if the item is already there. Items without a hitbox
+     * are indexed by their position.
      */
-    public static void renderBackground(Graphics g) {
-
-        // Removes the non-useful block layers and then sorts them by print priority. So the higher print priority
-        // will be printed first
-        Stream<ItemController> sort = items
-                .stream()
-                .filter(block -> Utility.isInRange(block.getPrintPriority(), Scene.Layer.BACKGROUND.getLow(), Scene.Layer.MIDDLEGROUND.getHigh()))
-                .sorted(Comparator.comparingInt(ItemController::getPrintPriority));
-
-         for(var item : sort.collect(Collectors.toCollection(ArrayList::new))) {
-             item.render(g);
-         }
+    private static void addBody(ItemController item) {
+
+        HitBox hitBox = item.getHitBox();
+
+        if (hitBox != null) {
+            bodies.add(item, hitBox.getX(), hitBox.getY(), hitBox.getWidth(), hitBox.getHeight());
+        }
+        else {
+            bodies.add(item, item.getPosition().x, item.getPosition().y, 1, 1);
+        }
     }
 
     /**
-     * Renders all the items foreground, so with a higher priority respect to the player.
-     * @param g the graphics to draw the items on.
+     * Adds to the given list all the items that can be seen in the {@link Viewport}, in no particular order. They are
+     * drawn by the {@link com.ca.gui.RenderQueue}: the items in the lower layers before the entities, the others
+     * after them. <br>
+     * The items on the ground come from the ground index, the equipped ones follow their character and are only a few.
+     * @param view the viewport to look into.
+     * @param out the list where to add the visible items.
      */
-    public static void renderForeground(Graphics g) {
+    public static void getVisible(Viewport.Bounds view, List<ItemController> out) {
+
+        int from = out.size();
 
-        // Removes the non-useful block layers and then sorts them by print priority. So the higher print priority
-        // will be printed first
-        Stream<ItemController> sort = items
-                .stream()
-                .filter(block -> Utility.isInRange(block.getPrintPriority(), Scene.Layer.FOREGROUND.getLow(), Scene.Layer.OVERLAY.getHigh()))
-                .sorted(Comparator.comparingInt(ItemController::getPrintPriority));
+        // Items are drawn centered on their position, and their hitbox is around it
+        final int reach = 3 * Viewport.MARGIN;
 
-        for(var item : sort.collect(Collectors.toCollection(ArrayList::new))) {
-            item.render(g);
+        bodies.query(view.getX() - reach, view.getY() - reach, view.width() + reach * 2, view.height() + reach * 2, out);
+
+        for(int i = 0; i < equipped.size(); i++) {
+            out.add(equipped.get(i));
+        }
+
+        for(int i = out.size() - 1; i >= from; i--) {
+            ItemController item = out.get(i);
+
+            if (!view.isOnScreen(item.getPosition().x + view.originX() - Viewport.MARGIN,
+                    item.getPosition().y + view.originY() - Viewport.MARGIN, Viewport.MARGIN * 2, Viewport.MARGIN * 2)) {
+                out.remove(i);
+            }
         }
     }
 
@@ -177,6 +217,8 @@ public class ItemManager {
             target.unequip();
             target.setInUse(false);
             items.remove(target);
+            bodies.remove(target);
+            equipped.remove(target);
         }
     }
 
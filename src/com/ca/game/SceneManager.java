@@ -78,6 +78,8 @@ public class SceneManager {
      * @param g the graphics to draw on.
      */
     public static void renderBackground(Graphics g) {
+        gameScene.get(currentScene).updatePrintPriorities();
+
         render(g, Scene.Layer.BACKGROUND);
         render(g, Scene.Layer.MIDDLEGROUND);
     }
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.game;
+
+import com.ca.constants.Basic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Uniform grid that buckets objects by the cell their position falls in. The cells have the same size of the map
+ * blocks ({@link Basic#DEFAULT_BLOCK_WIDTH}x{@link Basic#DEFAULT_BLOCK_HEIGHT}), and they follow the same conversion
+ * of {@link com.ca.constants.Position#toGrid(com.ca.constants.Position)}. <br>
+ * The index is updated incrementally: whenever an object moves the manager owning it calls
+ * {@link SpatialHash#update(Object, int, int)}, which only touches the old and the new bucket. This way the cost of
+ * a query depends on how many objects are around the requested area and not on how many objects are in the game. <br>
+ * Objects are compared by identity, so a copy of an indexed object is a different object and is never found.
+ * @param <T> the type of the indexed objects.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class SpatialHash<T> {
+
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+    /**
+     * Open addressing table, linking the packed cell coordinates to the cell's bucket. The buckets are never
+     * removed, an empty bucket is simply skipped by the queries.
+     */
+    private long[] keys;
+    private List<T>[] buckets;
+    private int size;
+
+    /**
+     * The packed cell of each indexed object, stored in a single element array so moving an object doesn't box
+     * a new key.
+     */
+    private final IdentityHashMap<T, long[]> cells = new IdentityHashMap<>();
+
+    /**
+     * Creates an empty spatial hash.
+     */
+    public SpatialHash() {
+        allocate(64);
+    }
+
+    /**
+     * Adds an object to the index at the given absolute position. If the object is already indexed it is moved.
+     * @param element the object to add.
+     * @param x the absolute x coordinate.
+     * @param y the absolute y coordinate.
+     */
+    public synchronized void add(T element, int x, int y) {
+
+        long key = cellKey(x / Basic.DEFAULT_BLOCK_WIDTH, y / Basic.DEFAULT_BLOCK_HEIGHT);
+        long[] cell = cells.get(element);
+
+        if (cell != null) {
+            move(element, cell, key);
+            return;
+        }
+
+        cells.put(element, new long[] { key });
+        bucket(key, true).add(element);
+    }
+
+    /**
+     * Updates the position of an already indexed object. Objects that are not indexed are ignored.
+     * @param element the object that moved.
+     * @param x the new absolute x coordinate.
+     * @param y the new absolute y coordinate.
+     */
+    public synchronized void update(T element, int x, int y) {
+
+        long[] cell = cells.get(element);
+
+        if (cell == null) {
+            return;
+        }
+
+        move(element, cell, cellKey(x / Basic.DEFAULT_BLOCK_WIDTH, y / Basic.DEFAULT_BLOCK_HEIGHT));
+    }
+
+    /**
+     * Removes an object from the index.
+     * @param element the object to remove.
+     */
+    public synchronized void remove(T element) {
+
+        long[] cell = cells.remove(element);
+
+        if (cell != null) {
+            removeFromBucket(element, cell[0]);
+        }
+    }
+
+    /**
+     * @param element the object to look for.
+     * @return {@code true} if the object is indexed, otherwise {@code false}.
+     */
+    public synchronized boolean contains(T element) {
+        return cells.containsKey(element);
+    }
+
+    /**
+     * Adds to the given list all the objects in the given cell.
+     * @param cellX the x grid coordinate.
+     * @param cellY the y grid coordinate.
+     * @param out the list where to add the objects found.
+     */
+    public synchronized void get(int cellX, int cellY, List<T> out) {
+
+        List<T> bucket = bucket(cellKey(cellX, cellY), false);
+
+        if (bucket != null) {
+            out.addAll(bucket);
+        }
+    }
+
+    /**
+     * Adds to the given list all the objects within a square of cells centered in the given cell.
+     * @param cellX the x grid coordinate of the center.
+     * @param cellY the y grid coordinate of the center.
+     * @param radius the radius of the square in cells.
+     * @param out the list where to add the objects found.
+     */
+    public synchronized void queryRadius(int cellX, int cellY, int radius, List<T> out) {
+        queryCells(cellX - radius, cellY - radius, cellX + radius, cellY + radius, out);
+    }
+
+    /**
+     * Adds to the given list all the objects whose position falls in a cell overlapped by the given rectangle.
+     * @param x the absolute x coordinate of the rectangle.
+     * @param y the absolute y coordinate of the rectangle.
+     * @param width the rectangle's width.
+     * @param height the rectangle's height.
+     * @param out the list where to add the objects found.
+     */
+    public synchronized void queryRect(int x, int y, int width, int height, List<T> out) {
+        queryCells(x / Basic.DEFAULT_BLOCK_WIDTH, y / Basic.DEFAULT_BLOCK_HEIGHT,
+                (x + width) / Basic.DEFAULT_BLOCK_WIDTH, (y + height) / Basic.DEFAULT_BLOCK_HEIGHT, out);
+    }
+
+    /**
+     * @return the number of indexed objects.
+     */
+    public synchronized int size() {
+        return cells.size();
+    }
+
+    /**
+     * Adds all the objects of the cells in the given (inclusive) grid range.
+     */
+    private void queryCells(int fromX, int fromY, int toX, int toY, List<T> out) {
+        for(int cx = fromX; cx <= toX; cx++) {
+            for(int cy = fromY; cy <= toY; cy++) {
+                List<T> bucket = bucket(cellKey(cx, cy), false);
+
+                // Index based copy, addAll would create a temporary array for each bucket
+                if (bucket != null) {
+                    for(int i = 0; i < bucket.size(); i++) {
+                        out.add(bucket.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the object to a new cell, if the cell is the same as the old one nothing happens.
+     */
+    private void move(T element, long[] cell, long newKey) {
+
+        if (cell[0] == newKey) {
+            return;
+        }
+
+        removeFromBucket(element, cell[0]);
+        bucket(newKey, true).add(element);
+
+        cell[0] = newKey;
+    }
+
+    private void removeFromBucket(T element, long key) {
+
+        List<T> bucket = bucket(key, false);
+
+        if (bucket == null) {
+            return;
+        }
+
+        for(int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == element) {
+                bucket.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Looks for the bucket of the given cell.
+     * @param key the packed cell coordinates.
+     * @param create if {@code true} a missing bucket is created.
+     * @return the bucket of the cell, {@code null} if it is missing and {@code create} is {@code false}.
+     */
+    private List<T> bucket(long key, boolean create) {
+
+        int mask = keys.length - 1;
+
+        for(int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return buckets[i];
+            }
+
+            if (keys[i] == EMPTY_KEY) {
+                if (!create) {
+                    return null;
+                }
+
+                // Keeps the table at most half full
+                if ((size + 1) * 2 > keys.length) {
+                    rehash();
+                    return bucket(key, true);
+                }
+
+                keys[i] = key;
+                buckets[i] = new ArrayList<>(2);
+                size++;
+
+                return buckets[i];
+            }
+        }
+    }
+
+    private void rehash() {
+
+        long[] oldKeys = keys;
+        List<T>[] oldBuckets = buckets;
+
+        allocate(oldKeys.length * 2);
+
+        for(int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY_KEY) {
+                continue;
+            }
+
+            int mask = keys.length - 1;
+            int i = mix(oldKeys[j]) & mask;
+
+            while (keys[i] != EMPTY_KEY) {
+                i = (i + 1) & mask;
+            }
+
+            keys[i] = oldKeys[j];
+            buckets[i] = oldBuckets[j];
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        buckets = (List<T>[]) new List[capacity];
+
+        Arrays.fill(keys, EMPTY_KEY);
+    }
+
+    /**
+     * Packs the two cell coordinates into a single {@code long}.
+     */
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.game;
+
+/**
+ * Result of a swept collision test, see {@link CollisionManager#sweep(com.ca.entities.controllers.CharacterController, int, int, Sweep)}. <br>
+ * A rectangle is moved along a vector and tested against static rectangles: the sweep keeps the earliest time of
+ * impact, as a fraction of the move between {@code 0} and {@code 1}, and the normal of the face that was hit. <br>
+ * Touching edges are not a collision, the same as {@link java.awt.Rectangle#intersects(java.awt.Rectangle)}. A
+ * rectangle that already overlaps a target is only stopped if it still overlaps it at the end of the move, so
+ * entities stuck inside each other can walk away.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class Sweep {
+
+    /**
+     * Avoids losing a pixel when a time of impact like {@code 0.999...} is converted back to a distance.
+     */
+    private static final double EPSILON = 1e-9;
+
+    private int dx;
+    private int dy;
+
+    private double time;
+    private int normalX;
+    private int normalY;
+
+    /**
+     * Creates an empty sweep, with no impact.
+     */
+    public Sweep() {
+        reset(0, 0);
+    }
+
+    /**
+     * Clears the previous result and sets the move to test.
+     * @param dx the x component of the move.
+     * @param dy the y component of the move.
+     */
+    public void reset(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+
+        time = 1;
+        normalX = 0;
+        normalY = 0;
+    }
+
+    /**
+     * Tests the moving rectangle against a static one, keeping the result if the impact is earlier than the current.
+     * @param x the x coordinate of the moving rectangle.
+     * @param y the y coordinate of the moving rectangle.
+     * @param w the width of the moving rectangle.
+     * @param h the height of the moving rectangle.
+     * @param tx the x coordinate of the target.
+     * @param ty the y coordinate of the target.
+     * @param tw the width of the target.
+     * @param th the height of the target.
+     */
+    public void test(int x, int y, int w, int h, int tx, int ty, int tw, int th) {
+
+        if (w <= 0 || h <= 0 || tw <= 0 || th <= 0) {
+            return;
+        }
+
+        // Already overlapping, it only blocks the move if the end position still overlaps
+        if (overlaps(x, y, w, h, tx, ty, tw, th)) {
+            if (overlaps(x + dx, y + dy, w, h, tx, ty, tw, th)) {
+                hit(0, Math.abs(dx) >= Math.abs(dy) ? -Integer.signum(dx) : 0, Math.abs(dx) >= Math.abs(dy) ? 0 : -Integer.signum(dy));
+            }
+            return;
+        }
+
+        double entryX, exitX, entryY, exitY;
+
+        if (dx > 0) {
+            entryX = (tx - (x + w)) / (double) dx;
+            exitX = (tx + tw - x) / (double) dx;
+        }
+        else if (dx < 0) {
+            entryX = (tx + tw - x) / (double) dx;
+            exitX = (tx - (x + w)) / (double) dx;
+        }
+        else if (x < tx + tw && tx < x + w) {
+            entryX = Double.NEGATIVE_INFINITY;
+            exitX = Double.POSITIVE_INFINITY;
+        }
+        else {
+            return;
+        }
+
+        if (dy > 0) {
+            entryY = (ty - (y + h)) / (double) dy;
+            exitY = (ty + th - y) / (double) dy;
+        }
+        else if (dy < 0) {
+            entryY = (ty + th - y) / (double) dy;
+            exitY = (ty - (y + h)) / (double) dy;
+        }
+        else if (y < ty + th && ty < y + h) {
+            entryY = Double.NEGATIVE_INFINITY;
+            exitY = Double.POSITIVE_INFINITY;
+        }
+        else {
+            return;
+        }
+
+        double entry = Math.max(entryX, entryY);
+        double exit = Math.min(exitX, exitY);
+
+        // No overlap during the move, or the rectangles only touch at the end of it
+        if (entry >= exit || entry < 0 || entry >= 1) {
+            return;
+        }
+
+        if (entryX > entryY) {
+            hit(entry, -Integer.signum(dx), 0);
+        }
+        else {
+            hit(entry, 0, -Integer.signum(dy));
+        }
+    }
+
+    /**
+     * @return {@code true} if the move hits something, otherwise {@code false}.
+     */
+    public boolean isHit() {
+        return time < 1;
+    }
+
+    /**
+     * @return the time of impact as a fraction of the move, {@code 1} if nothing was hit.
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * @return the x component of the normal of the face hit, {@code -1}, {@code 0} or {@code 1}.
+     */
+    public int getNormalX() {
+        return normalX;
+    }
+
+    /**
+     * @return the y component of the normal of the face hit, {@code -1}, {@code 0} or {@code 1}.
+     */
+    public int getNormalY() {
+        return normalY;
+    }
+
+    /**
+     * @return how many pixels the rectangle can move along x before the impact.
+     */
+    public int getTravelX() {
+        return (int) (dx * time + Math.signum(dx) * EPSILON);
+    }
+
+    /**
+     * @return how many pixels the rectangle can move along y before the impact.
+     */
+    public int getTravelY() {
+        return (int) (dy * time + Math.signum(dy) * EPSILON);
+    }
+
+    private void hit(double time, int normalX, int normalY) {
+        if (time < this.time) {
+            this.time = time;
+            this.normalX = normalX;
+            this.normalY = normalY;
+        }
+    }
+
+    private static boolean overlaps(int x, int y, int w, int h, int tx, int ty, int tw, int th) {
+        return x < tx + tw && tx < x + w && y < ty + th && ty < y + h;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.game;
+
+import com.ca.constants.Basic;
+import com.ca.errors.Logger;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Keeps the time of the game threads. <br>
+ * The work of the game is split in named {@link Channel}s, each with its own rate: {@link TickScheduler#INPUT},
+ * {@link TickScheduler#SIMULATION} and {@link TickScheduler#RENDER}. A channel only knows when its next tick is due,
+ * so the channels never steal each other's ticks, and a thread can wait for the first of its channels to be due. <br>
+ * The threads sleep between the ticks instead of spinning: most of the wait is parked, and only the last part,
+ * where the system timer would wake the thread too late, is spun. The length of that part follows how late the
+ * thread actually wakes up, so the idle CPU stays close to zero without adding jitter.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class TickScheduler {
+
+    public static final String INPUT = "input";
+    public static final String SIMULATION = "simulation";
+    public static final String RENDER = "render";
+
+    /**
+     * How many simulation ticks can be run at once when the game falls behind. If it falls further behind (i.e. the
+     * window has been dragged) the missed time is dropped, instead of running all the ticks at once.
+     */
+    public static final int MAX_CATCH_UP = 5;
+
+    /**
+     * The bounds, in nanoseconds, of the final part of a wait that is spun instead of parked.
+     */
+    private static final long MIN_SPIN_TIME = 50_000;
+    private static final long MAX_SPIN_TIME = 2_000_000;
+
+    private static final ConcurrentHashMap<String, Channel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * The average delay, in nanoseconds, of a parked thread waking up.
+     */
+    private static volatile long oversleep = MAX_SPIN_TIME / 2;
+
+    static {
+        register(INPUT, Basic.INPUT_TPS, 1);
+        register(SIMULATION, Basic.GAME_TPS, MAX_CATCH_UP);
+        register(RENDER, Basic.GAME_FPS, 1);
+    }
+
+    /**
+     * Creates a new channel, replacing the one with the same name.
+     * @param name the channel's name.
+     * @param rate how many ticks are due each second.
+     * @param maxCatchUp how many late ticks can be run at once, the older ones are skipped.
+     * @return the new channel.
+     */
+    public static Channel register(String name, int rate, int maxCatchUp) {
+
+        Channel channel = new Channel(name, rate, maxCatchUp);
+
+        channels.put(name, channel);
+
+        return channel;
+    }
+
+    /**
+     * Looks for the channel with the given name.
+     * @param name the channel's name.
+     * @return the requested channel, or {@code null} if it doesn't exist.
+     */
+    public static Channel get(String name) {
+
+        Channel channel = channels.get(name);
+
+        if (channel == null) {
+            Logger.log(Logger.WARNING, "The tick channel '" + name + "' doesn't exist.");
+        }
+
+        return channel;
+    }
+
+    /**
+     * Sleeps until the first of the given channels is due.
+     * @param targets the channels to wait for.
+     */
+    public static void awaitNext(Channel... targets) {
+
+        long deadline = Long.MAX_VALUE;
+
+        for(Channel channel : targets) {
+            deadline = Math.min(deadline, channel.getDeadline());
+        }
+
+        sleepUntil(deadline);
+    }
+
+    /**
+     * Sleeps until the given time, parking the thread first and spinning the last part of the wait. The wait ends
+     * early if the thread is interrupted.
+     * @param deadline the time to wake up at, as given by {@link System#nanoTime()}.
+     */
+    public static void sleepUntil(long deadline) {
+
+        while (!Thread.currentThread().isInterrupted()) {
+            long remaining = deadline - System.nanoTime();
+
+            if (remaining <= 0) {
+                return;
+            }
+
+            long spin = Math.max(MIN_SPIN_TIME, Math.min(oversleep * 2, MAX_SPIN_TIME));
+
+            if (remaining > spin) {
+                long request = remaining - spin;
+                long start = System.nanoTime();
+
+                LockSupport.parkNanos(request);
+
+                // Follows how late the thread wakes up, averaged over the last waits
+                long late = Math.max(0, System.nanoTime() - start - request);
+                oversleep = (oversleep * 7 + late) / 8;
+            }
+            else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * A sequence of ticks at a fixed rate. A channel has to be used by a single thread.
+     */
+    public static class Channel {
+
+        private final String name;
+        private final long period;
+        private final int maxCatchUp;
+
+        /**
+         * When the next tick is due, as given by {@link System#nanoTime()}.
+         */
+        private long next;
+
+        private long ticks = 0;
+        private long missed = 0;
+
+        private Channel(String name, int rate, int maxCatchUp) {
+            this.name = name;
+            this.period = 1_000_000_000L / Math.max(1, rate);
+            this.maxCatchUp = Math.max(1, maxCatchUp);
+            this.next = System.nanoTime() + period;
+        }
+
+        /**
+         * Starts counting the ticks from now. This has to be called when a thread starts using the channel, so the
+         * time passed since the channel has been created isn't counted as missed.
+         */
+        public void reset() {
+            next = System.nanoTime() + period;
+        }
+
+        /**
+         * Counts the ticks that are due at the given time. If more than the channel's catch up limit are due, the
+         * older ones are skipped.
+         * @param now the current time, as given by {@link System#nanoTime()}.
+         * @return the number of ticks to run, {@code 0} if the next tick isn't due yet.
+         */
+        public int poll(long now) {
+
+            if (now < next) {
+                return 0;
+            }
+
+            long due = (now - next) / period + 1;
+
+            next += due * period;
+
+            if (due > maxCatchUp) {
+                missed += due - maxCatchUp;
+                due = maxCatchUp;
+            }
+
+            ticks += due;
+
+            return (int) due;
+        }
+
+        /**
+         * Sleeps until the next tick is due and counts it.
+         * @return {@code true} if the tick is due, {@code false} if the wait has been interrupted.
+         */
+        public boolean await() {
+
+            sleepUntil(next);
+
+            return poll(System.nanoTime()) > 0;
+        }
+
+        /**
+         * @param now the current time, as given by {@link System#nanoTime()}.
+         * @return how far the given time is between the last tick and the next one, from {@code 0} to {@code 1}.
+         */
+        public double getProgress(long now) {
+            return Math.max(0, Math.min(1, 1 - (double) (next - now) / period));
+        }
+
+        /**
+         * @return when the next tick is due, as given by {@link System#nanoTime()}.
+         */
+        public long getDeadline() {
+            return next;
+        }
+
+        /**
+         * @return the duration of a tick in nanoseconds.
+         */
+        public long getPeriod() {
+            return period;
+        }
+
+        /**
+         * @return the number of ticks run since the channel has been created.
+         */
+        public long getTicks() {
+            return ticks;
+        }
+
+        /**
+         * @return the number of ticks skipped because the channel fell too far behind.
+         */
+        public long getMissed() {
+            return missed;
+        }
+
+        /**
+         * @return the channel's name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        public String toString() {
+            return "Channel[Name: %s, Period: %dns, Ticks: %d, Missed: %d]".formatted(name, period, ticks, missed);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.game;
+
+import com.ca.entities.characters.Camera;
+import com.ca.events.GameMouseHandler;
+import com.ca.events.GameWindowHandler;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The part of the world seen by the main {@link Camera} in the current frame. <br>
+ * It is computed once at the beginning of each frame by {@link com.ca.gui.Renderer}, then every manager uses it to
+ * query its spatial index for the visible objects only, so the cost of a frame depends on the screen size and not
+ * on the size of the world. The {@link WorldSnapshot} uses the viewport of the last frame to find the objects to
+ * publish: the simulation thread reads it through {@link Viewport#getBounds()}, an immutable copy, and never through
+ * the static getters. <br>
+ * The world rectangle uses the same translation of {@link com.ca.resources.Utility#getEntityScreenCoords(com.ca.entities.states.EntityState)},
+ * so an entity or a block is visible if its position and texture size intersect it.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class Viewport {
+
+    /**
+     * How far, in pixels, a sprite can be drawn from the rectangle given by its position and its default frame.
+     * Half of the biggest animation frame (the {@code 192px} attack frames), used to avoid popping at the screen's
+     * borders.
+     */
+    public static final int MARGIN = 96;
+
+    /**
+     * The viewport of the last frame. It is replaced as a whole by the render thread, so the simulation thread always
+     * reads a consistent rectangle when it publishes the {@link WorldSnapshot}.
+     */
+    private static final AtomicReference<Bounds> bounds = new AtomicReference<>(new Bounds(0, 0, 0, 0, 0, 0));
+
+    /**
+     * Reads the camera position and the window size of the current frame. The camera position is the one drawn in
+     * the frame, see {@link GameLoop#interpolate(int, int)}.
+     * @param c the camera published by the {@link WorldSnapshot} for this frame.
+     */
+    public static void update(Camera c) {
+
+        // The camera is interpolated like the objects it follows, so they don't shake on screen
+        int originX = GameWindowHandler.getWindowWidth() / (int)(2 * GameMouseHandler.defaultScale) - c.getRenderX();
+        int originY = GameWindowHandler.getWindowHeight() / (int)(2 * GameMouseHandler.defaultScale) - c.getRenderY();
+
+        int width = (int) Math.ceil(GameWindowHandler.getWindowWidth() / GameMouseHandler.defaultScale);
+        int height = (int) Math.ceil(GameWindowHandler.getWindowHeight() / GameMouseHandler.defaultScale);
+
+        bounds.set(new Bounds(originX, originY, originX - c.getSubjectWidth() / 2, originY - c.getSubjectHeight() / 2,
+                width, height));
+    }
+
+    /**
+     * @return the viewport of the last frame, which doesn't change when the next frame updates the viewport.
+     */
+    public static Bounds getBounds() {
+        return bounds.get();
+    }
+
+    /**
+     * @return the x coordinate of the visible world rectangle.
+     */
+    public static int getX() {
+        return bounds.get().getX();
+    }
+
+    /**
+     * @return the y coordinate of the visible world rectangle.
+     */
+    public static int getY() {
+        return bounds.get().getY();
+    }
+
+    /**
+     * @return the width of the visible world rectangle, which is the window width in game pixels.
+     */
+    public static int getWidth() {
+        return bounds.get().width();
+    }
+
+    /**
+     * @return the height of the visible world rectangle, which is the window height in game pixels.
+     */
+    public static int getHeight() {
+        return bounds.get().height();
+    }
+
+    /**
+     * @return how much the entities and the blocks are moved on the x-axis when drawn on screen.
+     */
+    public static int getOffsetX() {
+        return bounds.get().offsetX();
+    }
+
+    /**
+     * @return how much the entities and the blocks are moved on the y-axis when drawn on screen.
+     */
+    public static int getOffsetY() {
+        return bounds.get().offsetY();
+    }
+
+    /**
+     * @return the screen x coordinate of the camera's focus minus the camera's x position, used by the objects
+     * drawn centered on their position (items and footsteps).
+     */
+    public static int getOriginX() {
+        return bounds.get().originX();
+    }
+
+    /**
+     * @return the screen y coordinate of the camera's focus minus the camera's y position, used by the objects
+     * drawn centered on their position (items and footsteps).
+     */
+    public static int getOriginY() {
+        return bounds.get().originY();
+    }
+
+    /**
+     * Checks if a world rectangle is visible.
+     * @param x the x coordinate of the rectangle.
+     * @param y the y coordinate of the rectangle.
+     * @param w the rectangle's width.
+     * @param h the rectangle's height.
+     * @return {@code true} if the rectangle intersects the visible world, otherwise {@code false}.
+     */
+    public static boolean isVisible(int x, int y, int w, int h) {
+        return bounds.get().isVisible(x, y, w, h);
+    }
+
+    /**
+     * Checks if a screen rectangle is visible.
+     * @param x the x screen coordinate of the rectangle.
+     * @param y the y screen coordinate of the rectangle.
+     * @param w the rectangle's width.
+     * @param h the rectangle's height.
+     * @return {@code true} if the rectangle intersects the window, otherwise {@code false}.
+     */
+    public static boolean isOnScreen(int x, int y, int w, int h) {
+        return bounds.get().isOnScreen(x, y, w, h);
+    }
+
+    /**
+     * The viewport of a frame, see the static methods of {@link Viewport} for the meaning of each value.
+     */
+    public record Bounds(int originX, int originY, int offsetX, int offsetY, int width, int height) {
+
+        /**
+         * @return the x coordinate of the visible world rectangle.
+         */
+        public int getX() {
+            return -offsetX;
+        }
+
+        /**
+         * @return the y coordinate of the visible world rectangle.
+         */
+        public int getY() {
+            return -offsetY;
+        }
+
+        /**
+         * @return {@code true} if the world rectangle intersects the visible world, otherwise {@code false}.
+         */
+        public boolean isVisible(int x, int y, int w, int h) {
+            return isOnScreen(x + offsetX, y + offsetY, w, h);
+        }
+
+        /**
+         * @return {@code true} if the screen rectangle intersects the window, otherwise {@code false}.
+         */
+        public boolean isOnScreen(int x, int y, int w, int h) {
+            return x < width && y < height && x + w > 0 && y + h > 0;
+        }
+    }
+}
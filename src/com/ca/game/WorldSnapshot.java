@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.game;
+
+import com.ca.constants.Basic;
+import com.ca.constants.Position;
+import com.ca.entities.FootStep;
+import com.ca.entities.characters.Camera;
+import com.ca.entities.controllers.CharacterController;
+import com.ca.entities.controllers.ItemController;
+import com.ca.entities.states.CharacterState;
+import com.ca.entities.states.EntityState;
+import com.ca.entities.states.ItemState;
+import com.ca.resources.animations.Action;
+import com.ca.resources.animations.AnimationClock;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The state of the world as seen by the renderer. <br>
+ * At the end of each tick the simulation copies the camera and the visible characters, items and footsteps (their
+ * position, action, direction, print priority, name and, in debug mode, their hitboxes) in a {@link Frame}, and
+ * publishes it. The renderer draws the last
+ * published frame, so it never reads the objects the simulation is changing and neither side waits for the other. <br>
+ * There are three frames: the one written by the simulation, the one read by the renderer and the last published
+ * one in between. Publishing and acquiring only swap a frame with the one in between, so the frame being read is
+ * never written and no lock is needed.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class WorldSnapshot {
+
+    /**
+     * The last published frame.
+     */
+    private static final AtomicReference<Frame> ready = new AtomicReference<>(new Frame());
+
+    /**
+     * The frame written by the simulation thread.
+     */
+    private static Frame back = new Frame();
+
+    /**
+     * The frame read by the render thread.
+     */
+    private static Frame front = new Frame();
+
+    private static long ticks = 0;
+
+    /**
+     * The visible objects found by the managers, reused by every tick.
+     */
+    private static final List<CharacterController> characters = new ArrayList<>();
+    private static final List<ItemController> items = new ArrayList<>();
+    private static final List<FootStep> footsteps = new ArrayList<>();
+
+    /**
+     * Copies the visible part of the world and publishes it. This has to be called by the simulation thread at the
+     * end of each tick. <br>
+     * The objects are found with the {@link Viewport} of the last frame, the margins of the managers' queries cover
+     * the few pixels the camera moves in a tick.
+     */
+    public static void publish() {
+
+        Frame frame = back;
+
+        frame.clear();
+        frame.tick = ++ticks;
+        frame.time = AnimationClock.getTick();
+        frame.camera.copy(CameraManager.get(Camera.MAIN_CAMERA));
+
+        characters.clear();
+        items.clear();
+        footsteps.clear();
+
+        // The render thread replaces the viewport every frame, so all the managers look into the same copy
+        Viewport.Bounds view = Viewport.getBounds();
+
+        EntityManager.getVisible(view, characters);
+        ItemManager.getVisible(view, items);
+        FootStepManager.getVisible(view, footsteps);
+
+        for(int i = 0; i < characters.size(); i++) {
+            CharacterController character = characters.get(i);
+
+            character.updatePrintPriority();
+
+            Body body = frame.next(character);
+            body.state.copy(character.getStateManager());
+            body.printPriority = character.getPrintPriority();
+            body.talkingSince = character.updateTalking();
+            body.name = character.getName();
+
+            if (Basic.DEBUG_MODE) {
+                character.copyHitBoxes(body.hitBox, body.range);
+            }
+        }
+
+        // The items follow the print priority of the characters
+        for(int i = 0; i < items.size(); i++) {
+            ItemController item = items.get(i);
+
+            item.updatePrintPriority();
+
+            Body body = frame.next(item);
+            body.state.copy(item.getState());
+            body.printPriority = item.getPrintPriority();
+            body.name = item.getName();
+
+            if (Basic.DEBUG_MODE) {
+                item.copyHitBoxes(body.hitBox, body.range);
+            }
+        }
+
+        for(int i = 0; i < footsteps.size(); i++) {
+            frame.next(footsteps.get(i));
+        }
+
+        back = ready.getAndSet(frame);
+    }
+
+    /**
+     * Gets the last published frame. This has to be called by the render thread at the beginning of each frame, the
+     * frame returned stays untouched until the next call.
+     * @return the last frame published by the simulation.
+     */
+    public static Frame acquire() {
+
+        if (ready.get().tick > front.tick) {
+            front = ready.getAndSet(front);
+        }
+
+        return front;
+    }
+
+    /**
+     * A copy of the visible world at the end of a tick.
+     */
+    public static class Frame {
+
+        private final Camera camera = new Camera(Camera.MAIN_CAMERA);
+
+        /**
+         * The copied objects, the bodies are reused by the next ticks.
+         */
+        private final List<Body> bodies = new ArrayList<>();
+        private int size = 0;
+
+        private long tick = 0;
+        private long time = 0;
+
+        private Frame() {
+            camera.setPosition(new Position());
+        }
+
+        /**
+         * @return the main camera at the end of the tick.
+         */
+        public Camera getCamera() {
+            return camera;
+        }
+
+        /**
+         * @return the number of objects in the frame.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param index the index of the object.
+         * @return the copy of the object at the given index.
+         */
+        public Body get(int index) {
+            return bodies.get(index);
+        }
+
+        /**
+         * @return the tick the frame has been published at.
+         */
+        public long getTick() {
+            return tick;
+        }
+
+        /**
+         * @return the time of the animations at the end of the tick, see {@link AnimationClock}.
+         */
+        public long getTime() {
+            return time;
+        }
+
+        private void clear() {
+            for(int i = 0; i < size; i++) {
+                bodies.get(i).owner = null;
+            }
+
+            size = 0;
+        }
+
+        /**
+         * Takes the next free body of the frame for the given object.
+         */
+        private Body next(Object owner) {
+
+            if (size == bodies.size()) {
+                bodies.add(new Body());
+            }
+
+            Body body = bodies.get(size++);
+            body.set(owner);
+
+            return body;
+        }
+    }
+
+    /**
+     * The copy of a character, an item or a footstep.
+     */
+    public static class Body {
+
+        private Object owner;
+
+        /**
+         * The copy of the owner's state, {@code null} for the footsteps.
+         */
+        private EntityState state;
+
+        private int printPriority = 0;
+        private long talkingSince = -1;
+        private String name;
+
+        /**
+         * The owner's hitboxes, copied only in debug mode where they are drawn.
+         */
+        private final Rectangle hitBox = new Rectangle();
+        private final Rectangle range = new Rectangle();
+
+        private Body() { }
+
+        private void set(Object owner) {
+
+            this.owner = owner;
+
+            printPriority = 0;
+            talkingSince = -1;
+            name = null;
+
+            // Creates a new copy only if the body held another kind of object
+            if (owner instanceof CharacterController) {
+                if (!(state instanceof CharacterState)) {
+                    state = new CharacterState(new Position());
+                }
+            }
+            else if (owner instanceof ItemController) {
+                if (!(state instanceof ItemState)) {
+                    state = new ItemState(new Position(), Action.Idling);
+                }
+            }
+        }
+
+        /**
+         * @return the object this body is the copy of.
+         */
+        public Object getOwner() {
+            return owner;
+        }
+
+        /**
+         * @return the copy of the owner's state, {@code null} for the footsteps.
+         */
+        public EntityState getState() {
+            return state;
+        }
+
+        /**
+         * @return the owner's name, {@code null} for the footsteps.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the owner's hitbox in world coordinates, empty if it doesn't have one. Only copied in debug mode.
+         */
+        public Rectangle getHitBox() {
+            return hitBox;
+        }
+
+        /**
+         * @return the interactions hitbox of a character or the action range of an item, in world coordinates. Only
+         * copied in debug mode.
+         */
+        public Rectangle getRange() {
+            return range;
+        }
+
+        /**
+         * @return the owner's print priority.
+         */
+        public int getPrintPriority() {
+            return printPriority;
+        }
+
+        /**
+         * @return the y coordinate of the owner.
+         */
+        public int getY() {
+            return owner instanceof FootStep step ? step.getPosition().y : state.getPosition().y;
+        }
+
+        /**
+         * @return {@code true} if the owner is a character close enough to the subject to show its message box.
+         */
+        public boolean isTalking() {
+            return talkingSince >= 0;
+        }
+
+        /**
+         * @return the tick the owner's message box has been opened, {@code -1} if it is closed.
+         */
+        public long getTalkingSince() {
+            return talkingSince;
+        }
+    }
+}
@@ -101,7 +101,7 @@ public class BackPackCells extends JPanel {
                 showIconDescription = System.currentTimeMillis();
             }
 
-            if(GameKeyHandler.isKeyPressed((char)KeyEvent.VK_Z)) {
+            if(GameKeyHandler.isKeyDown((char)KeyEvent.VK_Z)) {
                 inInventory = false;
                 item = null;
             }
@@ -18,10 +18,11 @@ package com.ca.gui;
 import com.ca.constants.Assets;
 import com.ca.constants.Position;
 import com.ca.entities.characters.Camera;
-import com.ca.entities.controllers.CharacterController;
+import com.ca.entities.states.EntityState;
 import com.ca.events.GameMouseHandler;
 import com.ca.events.GameWindowHandler;
 import com.ca.game.CameraManager;
+import com.ca.game.Viewport;
 
 import java.awt.*;
 import java.awt.geom.Rectangle2D;
@@ -45,18 +46,21 @@ public class Decorator {
      * Draws the character IGN on top of the character's graphic.
      * @param context the graphic context in which draw the name.
      * @param c the font color.
-     * @param ctrl the character controller to draw the IGN of.
+     * @param name the character's IGN, as published by the {@link com.ca.game.WorldSnapshot}.
+     * @param state the state the character is drawn with.
+     * @param width the width of the character's frame.
+     * @param height the height of the character's frame.
      * @param centered if set to {@code true} the text will be centered relatively to the controller's
      *                 rendering space.
      */
-    public static void drawIGN(Graphics context, Color c, CharacterController ctrl, boolean centered) {
+    public static void drawIGN(Graphics context, Color c, String name, EntityState state, int width, int height, boolean centered) {
 
         context.setFont(Assets.FONT);
 
         FontMetrics metrics = context.getFontMetrics(Assets.FONT);
-        Rectangle2D fontBounds = metrics.getStringBounds(ctrl.getName(), context);
+        Rectangle2D fontBounds = metrics.getStringBounds(name, context);
 
-        int fontOffsetX = centered ? (int) ((ctrl.getWidth() - fontBounds.getWidth()) / 2) : 0;
+        int fontOffsetX = centered ? (int) ((width - fontBounds.getWidth()) / 2) : 0;
         int fontOffsetY = 5;
 
         long delay = (DELAY_IGN_TEXT + 5000) - System.currentTimeMillis();
@@ -69,10 +73,8 @@ public class Decorator {
                 context.setColor(c);
             }
 
-            Camera cam = CameraManager.get(Camera.MAIN_CAMERA);
-
-            context.drawString(ctrl.getName(), ctrl.getPosition().x + fontOffsetX - cam.getPosition().x + (GameWindowHandler.getWindowWidth() / (int)(2 * GameMouseHandler.defaultScale) - (ctrl.getWidth() / 2)),
-                                     ctrl.getPosition().y + fontOffsetY - cam.getPosition().y + (GameWindowHandler.getWindowHeight() / (int)(2 * GameMouseHandler.defaultScale) - (ctrl.getHeight() / 2)));
+            context.drawString(name, state.getRenderX() + fontOffsetX + Viewport.getOriginX() - (width / 2),
+                                     state.getRenderY() + fontOffsetY + Viewport.getOriginY() - (height / 2));
         }
     }
 
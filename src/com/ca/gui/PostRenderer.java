@@ -18,24 +18,40 @@ package com.ca.gui;
 import com.ca.constants.Basic;
 import com.ca.constants.Direction;
 import com.ca.constants.Position;
-import com.ca.entities.controllers.BlockController;
 import com.ca.errors.Logger;
+import com.ca.game.BlockManager;
+import com.ca.maps.BlockPlane;
 import com.ca.maps.GameScene;
 import com.ca.maps.Scene;
 
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * This class handles the post render logic of the map rendering, meaning that by default all the blocks have a single
  * look, which is not 'eye pleasing'. The role of this class is to check which blocks touch which other blocks and
  * based on that it tells the block to also render a certain layer. <br>
- * <b>IMPORTANT: </b>The post rendering happens <u>once</u>, and since <u>the map is not dynamic</u> the post render
- * action should not be needed more than once.
+ * Each block gets a mask with one bit for each direction, set if the block in the opposite direction connects with
+ * it and paints its border on it. The connections between the block types are computed once in a table indexed by
+ * type, and the masks are computed chunk by chunk in parallel, reading the types of each chunk and of the cells
+ * around it in a small grid that is never modified. The masks are painted on the scene afterwards, on a single
+ * thread. <br>
+ * <b>IMPORTANT: </b>The post rendering of the whole map happens <u>once</u>, when a single block changes only its
+ * neighbourhood is computed again, see {@link PostRenderer#update(GameScene, int, int)}.
  * @since 1.0.00
  * @author Macaluso Francesco
  */
 public class PostRenderer {
 
+    private static final Scene.Layer[] LAYERS = Scene.Layer.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * For each pair of block types, {@code true} if the first one paints its border on the second one when they
+     * touch. Built the first time it's needed, since the types are loaded with the map's assets.
+     */
+    private static boolean[][] connections = null;
+
     /**
      * Applies the post rendering to a given game scene.
      * @param target the game scene to post render.
@@ -54,35 +70,146 @@ public class PostRenderer {
 
         Logger.log(Logger.MESSAGE, "Starting post render on '" + target.getName() + "'...");
 
-        for(Scene.Layer currentLayer : Scene.Layer.values()) {
-            for (BlockController block : target.getScene().getLayer(currentLayer)) {
+        Scene scene = target.getScene();
+        boolean[][] table = getConnections();
 
-                if (!block.hasOverlays() || block.isPostRendered()) {
-                    continue;
-                }
+        // The scene is only read while the masks are computed, so the chunks don't need to wait for each other
+        List<Masks> masks = scene.getChunks().parallelStream()
+                .map(p -> compute(scene, table, p.x, p.y, BlockPlane.CHUNK_SIZE, BlockPlane.CHUNK_SIZE))
+                .toList();
+
+        for(Masks m : masks) {
+            paint(scene, m, false);
+        }
+
+        // The overlays changed the look of the static blocks
+        scene.getChunkCache().invalidateAll();
+
+        Logger.log(Logger.MESSAGE, "Post render finished successfully for '" + target.getName() + "'.");
+    }
+
+    /**
+     * Computes again the overlays of the blocks around a cell, needed after the blocks of that cell have changed.
+     * Only the cell and its 8 neighbours are read and painted.
+     * @param target the game scene that changed.
+     * @param x the x grid coordinate of the changed cell.
+     * @param y the y grid coordinate of the changed cell.
+     */
+    public static void update(GameScene target, int x, int y) {
 
-                // Gets the adjacent blocks
-                Position bp = Position.toGrid(block.getPosition());
+        if (!Basic.POST_RENDER || target == null) {
+            return;
+        }
+
+        // The images of the overlays depend on the neighbour types, so the blocks are painted even if the mask is the same
+        paint(target.getScene(), compute(target.getScene(), getConnections(), x - 1, y - 1, 3, 3), true);
+    }
 
-                // Checks all directions from the current block
-                for(Direction d : Direction.values()) {
-                    Position vector = Direction.convert(d, 1);
+    /**
+     * Computes the overlay masks of the blocks in a rectangle of cells.
+     * @param table the connection table, see {@link PostRenderer#getConnections()}.
+     * @return the masks, {@code -1} for the empty cells.
+     */
+    private static Masks compute(Scene scene, boolean[][] table, int fromX, int fromY, int width, int height) {
 
-                    BlockController b = target.getScene().get(bp.x + vector.x, bp.y + vector.y).getBlocks().get(currentLayer.ordinal());
+        // The types of the rectangle and of a border of one cell around it, -1 for the empty cells
+        int gridWidth = width + 2;
+        int[][] grid = new int[LAYERS.length][gridWidth * (height + 2)];
+
+        for(int[] types : grid) {
+            Arrays.fill(types, -1);
+        }
 
-                    if (b == null) {
+        scene.forEach(fromX - 1, fromY - 1, fromX + width, fromY + height, tile ->
+                grid[tile.getLayer().ordinal()][(tile.getY() - fromY + 1) * gridWidth + tile.getX() - fromX + 1] = tile.getType());
+
+        Masks masks = new Masks(fromX, fromY, width, height);
+
+        for(int l = 0; l < LAYERS.length; l++) {
+            int[] types = grid[l];
+            int[] result = masks.masks[l];
+
+            for(int y = 0; y < height; y++) {
+                for(int x = 0; x < width; x++) {
+                    int cell = (y + 1) * gridWidth + x + 1;
+                    int target = types[cell];
+
+                    if (target < 0) {
+                        result[y * width + x] = -1;
                         continue;
                     }
 
-                    if (isConnectionValid(block, b) && (b.getDefaultPrintPriority() <= block.getDefaultPrintPriority())) {
-                        b.paintOverlay(d, block.getOverlay(b.printsOnBlock() ? Direction.getOpposite(d) : d));
+                    int mask = 0;
+
+                    // The overlay in a direction is painted by the block on the opposite side
+                    for(Direction d : DIRECTIONS) {
+                        Position vector = Direction.convert(d, 1);
+                        int source = types[cell - vector.y * gridWidth - vector.x];
+
+                        if (source >= 0 && table[source][target]) {
+                            mask |= 1 << d.ordinal();
+                        }
                     }
+
+                    result[y * width + x] = mask;
                 }
+            }
+        }
+
+        return masks;
+    }
 
-                block.isPostRendered(true);
+    /**
+     * Paints the computed masks on the scene.
+     * @param force if {@code false} the blocks without overlays, before and after, are skipped.
+     */
+    private static void paint(Scene scene, Masks masks, boolean force) {
+        for(int l = 0; l < LAYERS.length; l++) {
+            for(int i = 0; i < masks.masks[l].length; i++) {
+                int mask = masks.masks[l][i];
+
+                if (mask < 0) {
+                    continue;
+                }
+
+                int x = masks.x + i % masks.width;
+                int y = masks.y + i / masks.width;
+
+                if (force || mask != 0 || scene.getOverlays(x, y, LAYERS[l]) != 0) {
+                    scene.setOverlays(x, y, LAYERS[l], mask);
+                }
             }
         }
-        Logger.log(Logger.MESSAGE, "Post render finished successfully for '" + target.getName() + "'.");
+    }
+
+    /**
+     * @return the connection table of the loaded block types, building it if needed.
+     */
+    private static synchronized boolean[][] getConnections() {
+
+        int count = BlockManager.getTypeCount();
+
+        if (connections != null && connections.length == count) {
+            return connections;
+        }
+
+        connections = new boolean[count][count];
+
+        for(int s = 0; s < count; s++) {
+            BlockManager.BlockData source = BlockManager.getData(s);
+
+            if (!source.hasOverlays()) {
+                continue;
+            }
+
+            for(int t = 0; t < count; t++) {
+                BlockManager.BlockData target = BlockManager.getData(t);
+
+                connections[s][t] = isConnectionValid(source, target) && target.printPriority() <= source.printPriority();
+            }
+        }
+
+        return connections;
     }
 
     /**
@@ -91,8 +218,8 @@ public class PostRenderer {
      * @param b2 the second block to compare.
      * @return {@code true} if both blocks have the ability to connect together.
      */
-    private static boolean isConnectionValid(BlockController b1, BlockController b2) {
-        return (canConnect(b1, b2) && !b1.getName().equals(b2.getName())) || (isConnectionAllowed(b1, b2));
+    private static boolean isConnectionValid(BlockManager.BlockData b1, BlockManager.BlockData b2) {
+        return (canConnect(b1, b2) && !b1.id().equals(b2.id())) || b1.isConnectionAllowed(b2.id());
     }
 
     /**
@@ -102,18 +229,25 @@ public class PostRenderer {
      * @return {@code true} if the connection is generic, meaning that both blocks can connect to every
      * other blocks, otherwise {@code false}.
      */
-    private static boolean canConnect(BlockController b1, BlockController b2) {
-        return b1.isConnectionGeneric() && b2.isConnectionGeneric();
+    private static boolean canConnect(BlockManager.BlockData b1, BlockManager.BlockData b2) {
+        return b1.isConnectionAllowed("*") && b2.isConnectionAllowed("*");
     }
 
     /**
-     * Checks if a not generic block connection type can connect to a given block.
-     * @param source the allowed block connection list's source.
-     * @param target the block to check in the list.
-     * @return {@code true} if the target block is contained in the source's connection list,
-     * otherwise {@code false}.
+     * The overlay masks of a rectangle of cells, one array for each layer with the cells stored row by row.
      */
-    private static boolean isConnectionAllowed(BlockController source, BlockController target) {
-        return Arrays.stream(source.getAllowedBlockConnections()).anyMatch(s -> s.equals(target.getName()));
+    private static class Masks {
+
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int[][] masks;
+
+        private Masks(int x, int y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.masks = new int[LAYERS.length][width * height];
+        }
     }
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.gui;
+
+import com.ca.entities.FootStep;
+import com.ca.entities.controllers.CharacterController;
+import com.ca.entities.controllers.ItemController;
+import com.ca.game.WorldSnapshot;
+import com.ca.maps.Scene;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Single drawing list of all the visible characters, items and footsteps. <br>
+ * Each object is drawn in a pass, following the order of {@link Renderer#render(Graphics)}:
+ * <li/> the items in the lower layers ({@link Scene.Layer#BACKGROUND}, {@link Scene.Layer#MIDDLEGROUND})
+ * <li/> the footsteps
+ * <li/> the characters
+ * <li/> the items in the higher layers ({@link Scene.Layer#FOREGROUND}, {@link Scene.Layer#OVERLAY})
+ * <br>
+ * Inside a pass the objects are sorted by print priority, then from top to bottom. <br>
+ * The objects are read from the frame published by the simulation (see {@link WorldSnapshot}) and drawn with their
+ * published state. The queue is kept between the frames: the objects still in view keep their place, the new ones
+ * are appended and the ones out of view are dropped. Since things only move a few pixels per frame, the order is
+ * almost right and an insertion sort fixes it in about linear time without allocating anything.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class RenderQueue {
+
+    private static final int ITEMS_BACK = 0;
+    private static final int FOOTSTEPS = 1;
+    private static final int CHARACTERS = 2;
+    private static final int ITEMS_FRONT = 3;
+
+    /**
+     * Bits of the sort key used by the print priority, enough for the priorities above
+     * {@link com.ca.constants.Basic#DEFAULT_PRINT_PRIORITY_MAX} given to characters and equipped items.
+     */
+    private static final int PRIORITY_BITS = 5;
+    private static final int PRIORITY_MAX = (1 << PRIORITY_BITS) - 1;
+
+    /**
+     * The queued objects in drawing order, with their copy in the current frame and their sort key.
+     */
+    private Object[] entries = new Object[64];
+    private WorldSnapshot.Body[] bodies = new WorldSnapshot.Body[64];
+    private long[] keys = new long[64];
+    private int size = 0;
+
+    /**
+     * For each queued object, the last frame it was seen in and the index of its copy in that frame. The values are
+     * kept in an array so the lookup doesn't box them.
+     */
+    private final IdentityHashMap<Object, int[]> seen = new IdentityHashMap<>();
+    private int frame = 0;
+
+    /**
+     * Collects the objects of the given frame and sorts them. Needs to be called once per frame, after the
+     * {@link com.ca.game.Viewport} has been updated.
+     * @param snapshot the frame published by the simulation, see {@link WorldSnapshot}.
+     */
+    public void update(WorldSnapshot.Frame snapshot) {
+
+        frame++;
+
+        for(int i = 0; i < snapshot.size(); i++) {
+            offer(snapshot.get(i).getOwner(), i);
+        }
+
+        // Drops the objects out of view and computes the keys of the others, keeping their order
+        int count = 0;
+
+        for(int i = 0; i < size; i++) {
+            Object entry = entries[i];
+            int[] last = seen.get(entry);
+
+            if (last[0] != frame) {
+                seen.remove(entry);
+                continue;
+            }
+
+            entries[count] = entry;
+            bodies[count] = snapshot.get(last[1]);
+            keys[count] = key(bodies[count]);
+            count++;
+        }
+
+        Arrays.fill(entries, count, size, null);
+        Arrays.fill(bodies, count, size, null);
+        size = count;
+
+        // Insertion sort, the order of the previous frame is almost sorted already
+        for(int i = 1; i < size; i++) {
+            Object entry = entries[i];
+            WorldSnapshot.Body body = bodies[i];
+            long key = keys[i];
+            int j = i - 1;
+
+            while (j >= 0 && keys[j] > key) {
+                entries[j + 1] = entries[j];
+                bodies[j + 1] = bodies[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+
+            entries[j + 1] = entry;
+            bodies[j + 1] = body;
+            keys[j + 1] = key;
+        }
+    }
+
+    /**
+     * Draws all the queued objects in order.
+     * @param g the graphics to draw on.
+     */
+    public void render(Graphics g) {
+        for(int i = 0; i < size; i++) {
+            WorldSnapshot.Body body = bodies[i];
+
+            if (entries[i] instanceof CharacterController character) {
+                character.render(g, body);
+            }
+            else if (entries[i] instanceof ItemController item) {
+                item.render(g, body);
+            }
+            else if (entries[i] instanceof FootStep step) {
+                step.render(g);
+            }
+        }
+    }
+
+    /**
+     * @return the number of objects drawn by the last frame.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Marks the object as visible in this frame, appending it to the queue if it's new.
+     * @param index the index of the object's copy in the frame.
+     */
+    private void offer(Object entry, int index) {
+
+        int[] last = seen.get(entry);
+
+        if (last != null) {
+            last[0] = frame;
+            last[1] = index;
+            return;
+        }
+
+        seen.put(entry, new int[] { frame, index });
+
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+            bodies = Arrays.copyOf(bodies, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+
+        entries[size++] = entry;
+    }
+
+    /**
+     * Packs the pass, the print priority and the y coordinate of the object in a single sortable value.
+     */
+    private static long key(WorldSnapshot.Body body) {
+
+        int pass;
+        int priority = body.getPrintPriority();
+        int y = body.getY();
+
+        if (body.getOwner() instanceof CharacterController) {
+            pass = CHARACTERS;
+        }
+        else if (body.getOwner() instanceof ItemController) {
+            pass = priority <= Scene.Layer.MIDDLEGROUND.getHigh() ? ITEMS_BACK : ITEMS_FRONT;
+        }
+        else {
+            pass = FOOTSTEPS;
+        }
+
+        priority = Math.max(0, Math.min(priority, PRIORITY_MAX));
+
+        // The sign bit of y is flipped, so that negative coordinates come first
+        return ((long) pass << (32 + PRIORITY_BITS)) | ((long) priority << 32) | ((y & 0xFFFFFFFFL) ^ 0x80000000L);
+    }
+}
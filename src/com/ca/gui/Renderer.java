@@ -18,6 +18,7 @@ package com.ca.gui;
 import com.ca.errors.Logger;
 import com.ca.events.scenes.SceneChanged;
 import com.ca.game.*;
+import com.ca.resources.animations.AnimationClock;
 
 import java.awt.*;
 
@@ -36,6 +37,11 @@ public class Renderer implements SceneChanged {
 
     private static boolean sceneChanged = false;
 
+    /**
+     * The visible characters, items and footsteps in drawing order.
+     */
+    private final RenderQueue queue = new RenderQueue();
+
     public Renderer() {
         SceneManager.addSceneListener(this);
     }
@@ -52,17 +58,28 @@ public class Renderer implements SceneChanged {
      * <li/> SceneManager (<b>Foreground</b>, <b>Overlay</b>)
      * <li/> {@link GUI} (<b>Graphic User Interface</b>)
      * <br>
+     * Before drawing, the {@link Viewport} of the frame is computed, so that each manager only looks at the objects
+     * in view. The items, the footsteps and the entities are drawn together by the {@link RenderQueue}, which keeps
+     * the same order, from the last frame published by the simulation (see {@link WorldSnapshot}).
      * @param g the graphics to draw the images on.
      */
     public void render(Graphics g) {
         try {
+            // The world as it was at the end of the last tick
+            WorldSnapshot.Frame frame = WorldSnapshot.acquire();
+
+            // Every manager draws only what is inside the camera's view of this frame
+            Viewport.update(frame.getCamera());
+
+            // The animations are drawn as they were at the end of the tick
+            AnimationClock.setFrameTime(frame.getTime());
+
             SceneManager.renderBackground(g);
-            ItemManager.renderBackground(g);
 
-            FootStepManager.renderAll(g);
-            EntityManager.renderAll(g);
+            // Items, footsteps and entities
+            queue.update(frame);
+            queue.render(g);
 
-            ItemManager.renderForeground(g);
             SceneManager.renderForeground(g);
 
             GUI.render(g);
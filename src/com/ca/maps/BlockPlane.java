@@ -19,24 +19,63 @@ import com.ca.constants.Position;
 import com.ca.entities.controllers.BlockController;
 import com.ca.errors.Logger;
 import com.ca.game.BlockManager;
-import com.ca.game.CollisionManager;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
- * Represent a single scene plane. This is a rectangle made of {@link SceneSection} instances that are being initialized
- * with the default {@link com.ca.entities.controllers.CharacterController} instance loaded by the {@link BlockManager} class.
- * The default filler can be modified by the developer with the appropriate method. <br>
+ * Represent a single scene plane. This is a rectangle of cells, each one with a maximum of one block for each
+ * {@link Scene.Layer}. <br>
  * This class contains methods to retrieve information about the map itself such as the width and height of it. When
- * adding a block the map resizes itself if it needs to. All the non-added blocks by the user are by default instances of
- * the filler object.
+ * adding a block the map resizes itself if it needs to. <br>
+ * The blocks are not stored as {@link BlockController} instances: each cell only keeps the block type (see
+ * {@link BlockManager#getType(String)}), the texture variant, the mask of the overlays painted on it (one bit for
+ * each {@link com.ca.constants.Direction}) and the set of their images (see {@link com.ca.resources.CompositeCache}),
+ * everything else is shared by all the blocks of the same type in their
+ * {@link BlockManager.BlockData}. A controller is kept only for the blocks that need one, see
+ * {@link Scene#getBlock(int, int, Scene.Layer)}. <br>
+ * The cells are grouped in square {@link SceneChunk} instances indexed by their packed chunk coordinates, so
+ * finding a cell never depends on how big the map is, and the arrays of a layer are created only when the chunk
+ * has a block in that layer. <br>
+ * Each chunk also keeps its blocks sorted in drawing order, grouped by the layer they are drawn in. The order is
+ * updated when a block is set or its print priority changes, so drawing never sorts anything, see
+ * {@link BlockPlane#forEachInDrawOrder(Scene.Layer, int, int, int, int, Consumer)}.
  * @since 1.0.00
  * @author Macaluso Francesco
  */
 public class BlockPlane {
 
-    // TODO: set grid key coordinates to absolute and translate them to grid and vice versa ONLY WHEN NEEDED
-    private final HashMap<Position, SceneSection> grid;
+    /**
+     * The side of a square chunk, in blocks. This has to be a power of two since the chunk coordinates are
+     * calculated with shifts and masks instead of divisions.
+     */
+    public static final int CHUNK_SIZE = 16;
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final Scene.Layer[] LAYER_VALUES = Scene.Layer.values();
+    private static final int LAYERS = LAYER_VALUES.length;
+
+    /*
+     * The bits of the drawing keys, see BlockPlane#drawKey(int, int, int). From the most significant: the layer the
+     * block is drawn in, the row, the print priority, the column and the layer the block is stored in. The cell
+     * coordinates are the ones inside the chunk, so a key fits in a char.
+     */
+    private static final int LAYER_BITS = 2;
+    private static final int PRIORITY_BITS = 4;
+    private static final int PRIORITY_MAX = (1 << PRIORITY_BITS) - 1;
+    private static final int COLUMN_SHIFT = LAYER_BITS;
+    private static final int PRIORITY_SHIFT = COLUMN_SHIFT + CHUNK_SHIFT;
+    private static final int ROW_SHIFT = PRIORITY_SHIFT + PRIORITY_BITS;
+    private static final int DRAW_LAYER_SHIFT = ROW_SHIFT + CHUNK_SHIFT;
+
+    /**
+     * Links the packed chunk coordinates (see {@link BlockPlane#chunkKey(int, int)}) to the chunk itself.
+     */
+    private final HashMap<Long, SceneChunk> chunks = new HashMap<>();
 
     /**
      * The upper left and the lower right corner of the map.
@@ -47,105 +86,530 @@ public class BlockPlane {
     /**
      * Constructor for a basic empty map plane.
      */
-    public BlockPlane() {
+    public BlockPlane() { }
 
-        grid = new HashMap<>() {
-            public SceneSection get(Object key) {
-                if (!(key instanceof Position position)) {
-                    return null;
-                }
+    /**
+     * Puts a block in a cell, updating the map corners and overwriting the block in the same layer, if any. The
+     * overlays and the controller of the old block are dropped.
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer of the block.
+     * @param type the block type.
+     * @param variant the block's texture.
+     * @return the type of the block that has been overwritten, {@code -1} if there was none.
+     */
+    public int set(int x, int y, Scene.Layer layer, int type, int variant) {
 
-                return values().stream().filter(sec -> sec.position.equals(position)).findFirst().orElse(null);
-            }
-        };
+        if (type < 0 || type >= Short.MAX_VALUE) {
+            Logger.log(Logger.WARNING, "Trying to add to the map a block with an invalid type (" + type + ")!");
+            return -1;
+        }
+
+        updateCorners(x, y);
+
+        SceneChunk chunk = getChunk(x, y, true);
+        int l = layer.ordinal();
+        int index = index(x, y);
+
+        if (chunk.types[l] == null) {
+            chunk.types[l] = new short[CHUNK_SIZE * CHUNK_SIZE];
+            chunk.variants[l] = new byte[CHUNK_SIZE * CHUNK_SIZE];
+            chunk.overlays[l] = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        }
+
+        int replaced = chunk.types[l][index] - 1;
+
+        if (replaced >= 0) {
+            removeDrawKey(chunk, index, l);
+        }
+
+        addDrawKey(chunk, drawKey(index, l, BlockManager.getData(type).printPriority()));
+
+        // The types are stored shifted by one, so that 0 is an empty cell
+        chunk.types[l][index] = (short) (type + 1);
+        chunk.variants[l][index] = (byte) variant;
+        chunk.overlays[l][index] = 0;
+
+        if (chunk.overlaySets[l] != null) {
+            chunk.overlaySets[l][index] = 0;
+        }
+
+        setInstance(chunk, l, index, null);
+
+        return replaced;
+    }
+
+    /**
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer to look for.
+     * @return the type of the block in the given cell and layer, {@code -1} if the layer is empty.
+     */
+    public int getType(int x, int y, Scene.Layer layer) {
+
+        SceneChunk chunk = getChunk(x, y, false);
+
+        if (chunk == null || chunk.types[layer.ordinal()] == null) {
+            return -1;
+        }
+
+        return chunk.types[layer.ordinal()][index(x, y)] - 1;
+    }
+
+    /**
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer to look for.
+     * @return the texture variant of the block in the given cell and layer, {@code 0} if the layer is empty.
+     */
+    public int getVariant(int x, int y, Scene.Layer layer) {
+
+        SceneChunk chunk = getChunk(x, y, false);
+
+        if (chunk == null || chunk.variants[layer.ordinal()] == null) {
+            return 0;
+        }
+
+        return chunk.variants[layer.ordinal()][index(x, y)] & 0xFF;
+    }
+
+    /**
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer to look for.
+     * @return the mask of the overlays painted on the block, one bit for each direction ordinal.
+     */
+    public int getOverlays(int x, int y, Scene.Layer layer) {
+
+        SceneChunk chunk = getChunk(x, y, false);
+
+        if (chunk == null || chunk.overlays[layer.ordinal()] == null) {
+            return 0;
+        }
+
+        return chunk.overlays[layer.ordinal()][index(x, y)] & 0xFF;
     }
 
     /**
-     * Adds a blocks to the plane, updating the map corners and overwriting the existing blocks, if any.
-     * @param block the block to add to the plane.
+     * Sets the mask of the overlays painted on a block. Does nothing if the cell is empty.
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer of the block.
+     * @param overlays the new mask, one bit for each direction ordinal.
      */
-    public void add(BlockController block) {
+    public void setOverlays(int x, int y, Scene.Layer layer, int overlays) {
+
+        SceneChunk chunk = getChunk(x, y, false);
 
-        if (block == null) {
-            Logger.log(Logger.WARNING, "Trying to add to the map a null block!");
+        if (chunk == null || chunk.overlays[layer.ordinal()] == null) {
             return;
         }
 
-        updateCorners(block.getPosition());
+        chunk.overlays[layer.ordinal()][index(x, y)] = (byte) overlays;
+    }
 
-        SceneSection sec = get(Position.toGrid(block.getPosition()));
+    /**
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer to look for.
+     * @return the overlay images painted on the block, see {@link com.ca.resources.CompositeCache#getOverlaySet(java.awt.image.BufferedImage[])}.
+     */
+    public int getOverlaySet(int x, int y, Scene.Layer layer) {
 
-        if (sec == null) {
+        SceneChunk chunk = getChunk(x, y, false);
+
+        if (chunk == null || chunk.overlaySets[layer.ordinal()] == null) {
+            return 0;
+        }
+
+        return chunk.overlaySets[layer.ordinal()][index(x, y)];
+    }
+
+    /**
+     * Sets the overlay images painted on a block. Does nothing if the cell is empty.
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer of the block.
+     * @param overlaySet the new overlay set, see {@link com.ca.resources.CompositeCache#getOverlaySet(java.awt.image.BufferedImage[])}.
+     */
+    public void setOverlaySet(int x, int y, Scene.Layer layer, int overlaySet) {
+
+        SceneChunk chunk = getChunk(x, y, false);
+        int l = layer.ordinal();
+
+        if (chunk == null || chunk.types[l] == null) {
             return;
         }
 
-        sec.addBlock(block);
+        // Most of the blocks have no overlays, the array is created by the first one
+        if (chunk.overlaySets[l] == null) {
+            chunk.overlaySets[l] = new short[CHUNK_SIZE * CHUNK_SIZE];
+        }
+
+        chunk.overlaySets[l][index(x, y)] = (short) overlaySet;
+    }
+
+    /**
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer to look for.
+     * @return the controller created for the block, {@code null} if there is none.
+     */
+    public BlockController getInstance(int x, int y, Scene.Layer layer) {
+
+        SceneChunk chunk = getChunk(x, y, false);
+
+        if (chunk == null || chunk.instances == null || chunk.instances[layer.ordinal()] == null) {
+            return null;
+        }
+
+        return chunk.instances[layer.ordinal()][index(x, y)];
+    }
+
+    /**
+     * Keeps the controller created for a block, it's dropped when the block is overwritten.
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer of the block.
+     * @param block the controller of the block.
+     */
+    public void setInstance(int x, int y, Scene.Layer layer, BlockController block) {
+
+        SceneChunk chunk = getChunk(x, y, false);
+
+        if (chunk != null) {
+            setInstance(chunk, layer.ordinal(), index(x, y), block);
+        }
+    }
+
+    /**
+     * Moves a block to its place in the drawing order for the given print priority. Does nothing if the cell is
+     * empty.
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer the block is stored in.
+     * @param priority the new print priority.
+     */
+    public void setPrintPriority(int x, int y, Scene.Layer layer, int priority) {
+
+        SceneChunk chunk = getChunk(x, y, false);
+        int l = layer.ordinal();
+        int index = index(x, y);
+
+        if (chunk == null || chunk.types[l] == null || chunk.types[l][index] == 0) {
+            return;
+        }
+
+        removeDrawKey(chunk, index, l);
+        addDrawKey(chunk, drawKey(index, l, priority));
+    }
+
+    /**
+     * Runs the action on all the blocks of the plane.
+     * @param action the action to run, the tile is reused for every block.
+     */
+    public void forEach(Consumer<Tile> action) {
+
+        Tile tile = new Tile();
+
+        for(SceneChunk chunk : chunks.values()) {
+            for(int index = 0; index < CHUNK_SIZE * CHUNK_SIZE; index++) {
+                visit(chunk, index, tile, action);
+            }
+        }
+    }
+
+    /**
+     * @return the grid coordinates of the upper left cell of each chunk of the plane, see {@link BlockPlane#CHUNK_SIZE}.
+     */
+    public List<Position> getChunks() {
+
+        List<Position> origins = new ArrayList<>(chunks.size());
+
+        for(SceneChunk chunk : chunks.values()) {
+            origins.add(new Position(chunk.x << CHUNK_SHIFT, chunk.y << CHUNK_SHIFT));
+        }
+
+        return origins;
+    }
+
+    /**
+     * Runs the action on all the blocks in the given rectangle of cells, row by row. The chunks are looked up once
+     * for each row they cross, not once per cell. Each call uses its own tile and only reads the plane, so several
+     * threads can visit the plane at the same time as long as nothing modifies it.
+     * @param fromX the x grid coordinate of the first column.
+     * @param fromY the y grid coordinate of the first row.
+     * @param toX the x grid coordinate of the last column, included.
+     * @param toY the y grid coordinate of the last row, included.
+     * @param action the action to run, the tile is reused for every block.
+     */
+    public void forEach(int fromX, int fromY, int toX, int toY, Consumer<Tile> action) {
+
+        Tile tile = new Tile();
+
+        for(int y = fromY; y <= toY; y++) {
+            for(int x = fromX; x <= toX; x = (x | CHUNK_MASK) + 1) {
+                SceneChunk chunk = getChunk(x, y, false);
+
+                if (chunk == null) {
+                    continue;
+                }
+
+                int last = Math.min(x | CHUNK_MASK, toX);
+
+                for(int cx = x; cx <= last; cx++) {
+                    visit(chunk, index(cx, y), tile, action);
+                }
+            }
+        }
     }
 
     /**
-     * Finds all the nearby blocks to the given position by a {@link CollisionManager#CHECK_RADIUS} radius.
-     * @param position the position where to start looking for blocks around it.
-     * @return a list of all the not null blocks found.
+     * Runs the action on the blocks drawn in the given layer, in the given rectangle of cells, in drawing order:
+     * from top to bottom, then by print priority and from left to right. <br>
+     * The chunks keep their blocks sorted, so the chunks of each chunk row are only merged, nothing is sorted.
+     * Like {@link BlockPlane#forEach(int, int, int, int, Consumer)} this only reads the plane.
+     * @param drawLayer the layer the blocks are drawn in, which follows their print priority.
+     * @param fromX the x grid coordinate of the first column.
+     * @param fromY the y grid coordinate of the first row.
+     * @param toX the x grid coordinate of the last column, included.
+     * @param toY the y grid coordinate of the last row, included.
+     * @param action the action to run, the tile is reused for every block.
      */
-    @Deprecated
-    public List<BlockController> getNearbyBlocks(Position position) {
+    public void forEachInDrawOrder(Scene.Layer drawLayer, int fromX, int fromY, int toX, int toY, Consumer<Tile> action) {
+
+        if (fromX > toX || fromY > toY) {
+            return;
+        }
+
+        Tile tile = new Tile();
 
-        Position girdCenterPos = Position.toGrid(position);
+        int fromChunkX = fromX >> CHUNK_SHIFT;
+        int toChunkX = toX >> CHUNK_SHIFT;
 
-        List<BlockController> blocks = new ArrayList<>();
+        // The chunks of a chunk row, and the range of their keys still to visit
+        SceneChunk[] row = new SceneChunk[toChunkX - fromChunkX + 1];
+        int[] next = new int[row.length];
+        int[] end = new int[row.length];
+
+        int base = drawLayer.ordinal() << DRAW_LAYER_SHIFT;
+
+        for(int chunkY = fromY >> CHUNK_SHIFT; chunkY <= toY >> CHUNK_SHIFT; chunkY++) {
+            int firstRow = Math.max(fromY, chunkY << CHUNK_SHIFT) & CHUNK_MASK;
+            int lastRow = Math.min(toY, (chunkY << CHUNK_SHIFT) | CHUNK_MASK) & CHUNK_MASK;
+
+            int size = 0;
+
+            for(int chunkX = fromChunkX; chunkX <= toChunkX; chunkX++) {
+                SceneChunk chunk = chunks.get(chunkKey(chunkX, chunkY));
+
+                if (chunk == null) {
+                    continue;
+                }
+
+                row[size] = chunk;
+                next[size] = lowerBound(chunk, base | (firstRow << ROW_SHIFT));
+                end[size] = lowerBound(chunk, base + ((lastRow + 1) << ROW_SHIFT));
+                size++;
+            }
+
+            while (true) {
+
+                // The chunks are in the same rows, so the next block is the one with the lowest row and priority.
+                // On a tie the chunk on the left comes first.
+                int target = -1;
+                int lowest = Integer.MAX_VALUE;
+
+                for(int i = 0; i < size; i++) {
+                    if (next[i] < end[i] && (row[i].order[next[i]] >>> PRIORITY_SHIFT) < lowest) {
+                        lowest = row[i].order[next[i]] >>> PRIORITY_SHIFT;
+                        target = i;
+                    }
+                }
+
+                if (target < 0) {
+                    break;
+                }
 
-        for(int x = girdCenterPos.x - CollisionManager.CHECK_RADIUS; x <= girdCenterPos.x + CollisionManager.CHECK_RADIUS; x++) {
-            for(int y = girdCenterPos.y - CollisionManager.CHECK_RADIUS; y <= girdCenterPos.y + CollisionManager.CHECK_RADIUS; y++) {
+                SceneChunk chunk = row[target];
+                int key = chunk.order[next[target]++];
 
-                SceneSection sec = get(new Position(x, y));
+                int column = (key >>> COLUMN_SHIFT) & CHUNK_MASK;
+                int x = (chunk.x << CHUNK_SHIFT) | column;
 
-                // If the section is valid adds all the non-null section's blocks to the list.
-                if (sec != null) {
-                    blocks.addAll(sec.getBlocks().stream().filter(Objects::nonNull).toList());
+                if (x < fromX || x > toX) {
+                    continue;
                 }
+
+                int index = (((key >>> ROW_SHIFT) & CHUNK_MASK) << CHUNK_SHIFT) | column;
+
+                fill(chunk, index, key & ((1 << LAYER_BITS) - 1), tile);
+                action.accept(tile);
+            }
+        }
+    }
+
+    /**
+     * Runs the action on the blocks of all the layers in the given chunk cell.
+     */
+    private void visit(SceneChunk chunk, int index, Tile tile, Consumer<Tile> action) {
+        for(int l = 0; l < LAYERS; l++) {
+            if (chunk.types[l] == null || chunk.types[l][index] == 0) {
+                continue;
             }
+
+            fill(chunk, index, l, tile);
+            action.accept(tile);
         }
+    }
+
+    /**
+     * Copies a block of the chunk in the tile.
+     */
+    private static void fill(SceneChunk chunk, int index, int l, Tile tile) {
+        tile.x = (chunk.x << CHUNK_SHIFT) | (index & CHUNK_MASK);
+        tile.y = (chunk.y << CHUNK_SHIFT) | (index >>> CHUNK_SHIFT);
+        tile.layer = LAYER_VALUES[l];
+        tile.type = chunk.types[l][index] - 1;
+        tile.variant = chunk.variants[l][index] & 0xFF;
+        tile.overlays = chunk.overlays[l][index] & 0xFF;
+        tile.overlaySet = chunk.overlaySets[l] == null ? 0 : chunk.overlaySets[l][index];
+        tile.instance = chunk.instances == null || chunk.instances[l] == null ? null : chunk.instances[l][index];
+    }
 
-        return blocks;
+    /**
+     * Packs the place of a block in the drawing order of its chunk. Sorting the keys sorts the blocks by the layer
+     * they are drawn in, then from top to bottom, by print priority and from left to right.
+     * @param index the index of the cell inside the chunk.
+     * @param layer the ordinal of the layer the block is stored in.
+     * @param priority the print priority of the block.
+     * @return the drawing key of the block.
+     */
+    private static char drawKey(int index, int layer, int priority) {
+
+        priority = Math.max(0, Math.min(priority, PRIORITY_MAX));
+
+        return (char) ((Scene.Layer.getLayerFromPriority(priority).ordinal() << DRAW_LAYER_SHIFT)
+                | ((index >>> CHUNK_SHIFT) << ROW_SHIFT)
+                | (priority << PRIORITY_SHIFT)
+                | ((index & CHUNK_MASK) << COLUMN_SHIFT)
+                | layer);
     }
 
     /**
-     * @return all not null blocks in the map.
+     * Inserts a key in the drawing order of the chunk, keeping it sorted.
      */
-    public List<BlockController> getAllBlocks() {
-        List<BlockController> blocks = new ArrayList<>();
+    private static void addDrawKey(SceneChunk chunk, char key) {
 
-        Collection<SceneSection> sections = new ArrayList<>(grid.values());
+        int at = lowerBound(chunk, key);
 
-        for(SceneSection sec : sections) {
-            blocks.addAll(sec.getBlocks());
+        if (chunk.orderSize == chunk.order.length) {
+            chunk.order = Arrays.copyOf(chunk.order, chunk.order.length * 2);
         }
 
-        blocks.removeIf(Objects::isNull);
+        System.arraycopy(chunk.order, at, chunk.order, at + 1, chunk.orderSize - at);
 
-        return blocks;
+        chunk.order[at] = key;
+        chunk.orderSize++;
     }
 
     /**
-     * Finds the section at the given position.
-     * @param p the {@link SceneSection} position.
-     * @return the instance of the section if found, otherwise it adds a new {@link SceneSection} instance with the given
-     * position and returns it.
+     * Removes the key of the block in the given cell and layer from the drawing order of the chunk. The print
+     * priority of the block is not known, so its key is searched among the ones of the same row.
      */
-    public SceneSection get(Position p) {
+    private static void removeDrawKey(SceneChunk chunk, int index, int layer) {
+
+        int row = index >>> CHUNK_SHIFT;
+        int cell = ((index & CHUNK_MASK) << COLUMN_SHIFT) | layer;
+        int cellMask = (CHUNK_MASK << COLUMN_SHIFT) | ((1 << LAYER_BITS) - 1);
+
+        for(int drawLayer = 0; drawLayer < LAYERS; drawLayer++) {
+            int base = (drawLayer << DRAW_LAYER_SHIFT) | (row << ROW_SHIFT);
+            int end = lowerBound(chunk, base + (1 << ROW_SHIFT));
+
+            for(int i = lowerBound(chunk, base); i < end; i++) {
+                if ((chunk.order[i] & cellMask) == cell) {
+                    System.arraycopy(chunk.order, i + 1, chunk.order, i, chunk.orderSize - i - 1);
+                    chunk.orderSize--;
+                    return;
+                }
+            }
+        }
+    }
 
-        SceneSection sec = grid.get(p);
+    /**
+     * @return the index of the first key of the chunk that is not lower than the given one.
+     */
+    private static int lowerBound(SceneChunk chunk, int key) {
 
-        // If the section is null then returns a new one
-        if (sec == null) {
-            SceneSection newSection = new SceneSection(p.x, p.y);
+        int low = 0;
+        int high = chunk.orderSize;
 
-            grid.put(newSection.position, newSection);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
 
-            return newSection;
+            if (chunk.order[middle] < key) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private static void setInstance(SceneChunk chunk, int layer, int index, BlockController block) {
+
+        if (block == null && (chunk.instances == null || chunk.instances[layer] == null)) {
+            return;
+        }
+
+        if (chunk.instances == null) {
+            chunk.instances = new BlockController[LAYERS][];
+        }
+
+        if (chunk.instances[layer] == null) {
+            chunk.instances[layer] = new BlockController[CHUNK_SIZE * CHUNK_SIZE];
+        }
+
+        chunk.instances[layer][index] = block;
+    }
+
+    /**
+     * Finds the chunk containing the given cell.
+     * @param create if {@code true} the chunk is created when missing.
+     * @return the chunk, {@code null} if it doesn't exist and it has not been created.
+     */
+    private SceneChunk getChunk(int x, int y, boolean create) {
+
+        long key = chunkKey(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        SceneChunk chunk = chunks.get(key);
+
+        if (chunk == null && create) {
+            chunk = new SceneChunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+            chunks.put(key, chunk);
         }
 
-        return sec;
+        return chunk;
+    }
+
+    /**
+     * @return the index of the given cell inside its chunk, the cells are stored row by row.
+     */
+    private static int index(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+    }
+
+    /**
+     * Packs the two chunk coordinates into a single {@code long}, the x coordinate takes the upper 32 bits and the
+     * y coordinate the lower 32 bits.
+     * @param chunkX the chunk x coordinate.
+     * @param chunkY the chunk y coordinate.
+     * @return the packed chunk key.
+     */
+    private static long chunkKey(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
     }
 
     /**
@@ -156,39 +620,35 @@ public class BlockPlane {
     }
 
     /**
-     * Updates the map bounds. This method uses ONLY grid positions.
-     * To modify the parameter, call this method with {@link Position#toGrid(Position)}.
-     * @param p the position of the new block
+     * Updates the map bounds with the given grid coordinates.
      */
-    private void updateCorners(Position p) {
-
-        Position gridPos = Position.toGrid(p);
+    private void updateCorners(int x, int y) {
 
         if(start == null){
-            start = new Position(gridPos.x, gridPos.y);
+            start = new Position(x, y);
         }
 
         if(end == null){
-            end = new Position(gridPos.x, gridPos.y);
+            end = new Position(x, y);
 
             end.x++;
             end.y++;
         }
 
-        if (start.x > gridPos.x) {
-            start.x = gridPos.x;
+        if (start.x > x) {
+            start.x = x;
         }
 
-        if (start.y > gridPos.y) {
-            start.y = gridPos.y;
+        if (start.y > y) {
+            start.y = y;
         }
 
-        if (end.x < gridPos.x) {
-            end.x = gridPos.x;
+        if (end.x < x) {
+            end.x = x;
         }
 
-        if (end.y < gridPos.y) {
-            end.y = gridPos.y;
+        if (end.y < y) {
+            end.y = y;
         }
 
     }
@@ -220,57 +680,108 @@ public class BlockPlane {
     }
 
     /**
-     * Represent a map square block. Each map block is made by a maximum of one  block for each {@link com.ca.maps.Scene.Layer}.
-     * Each section has a position linked with the blocks on it. There is no way to have multiple blocks with the same priority
-     * on the same square.
+     * Represent a square of {@link BlockPlane#CHUNK_SIZE}x{@link BlockPlane#CHUNK_SIZE} cells. The cells are stored
+     * row by row, and the arrays of a layer are created only when a block is added in that layer.
      */
-    public static class SceneSection {
+    private static class SceneChunk {
 
-        private final Position position;
+        private final int x;
+        private final int y;
 
-        private final BlockController[] blocks = new BlockController[Scene.Layer.values().length];
+        private final short[][] types = new short[LAYERS][];
+        private final byte[][] variants = new byte[LAYERS][];
+        private final byte[][] overlays = new byte[LAYERS][];
+        private final short[][] overlaySets = new short[LAYERS][];
 
         /**
-         * Creates an empty map section without any blocks on it.
-         * @param x the x coordinate.
-         * @param y the y coordinate.
+         * The controllers created for the blocks of the chunk, {@code null} until the first one is kept.
          */
-        public SceneSection(int x, int y) {
-            position = new Position(x, y);
+        private BlockController[][] instances;
+
+        /**
+         * The drawing keys of the blocks of the chunk, sorted. Only the first {@code orderSize} keys are used, see
+         * {@link BlockPlane#drawKey(int, int, int)}.
+         */
+        private char[] order = new char[CHUNK_SIZE * CHUNK_SIZE];
+        private int orderSize = 0;
+
+        private SceneChunk(int x, int y) {
+            this.x = x;
+            this.y = y;
         }
+    }
+
+    /**
+     * A block of the plane, as given by {@link BlockPlane#forEach(Consumer)}. The same tile is reused for all the
+     * blocks of a visit, so it must not be kept.
+     */
+    public static class Tile {
+
+        private int x;
+        private int y;
+        private Scene.Layer layer;
+        private int type;
+        private int variant;
+        private int overlays;
+        private int overlaySet;
+        private BlockController instance;
+
+        private Tile() { }
 
         /**
-         * Adds a block to a layer. If the layer is already occupied it overwrites the old block.
-         * @param newBlock the block to add to the section.
+         * @return the x grid coordinate.
          */
-        public void addBlock(BlockController newBlock) {
+        public int getX() {
+            return x;
+        }
 
-            if (newBlock == null) {
-                return;
-            }
+        /**
+         * @return the y grid coordinate.
+         */
+        public int getY() {
+            return y;
+        }
 
-            blocks[newBlock.getLayer().ordinal()] = newBlock;
+        /**
+         * @return the layer the block is stored in.
+         */
+        public Scene.Layer getLayer() {
+            return layer;
+        }
+
+        /**
+         * @return the block type, see {@link BlockManager#getType(String)}.
+         */
+        public int getType() {
+            return type;
         }
 
         /**
-         * @return {@code true} if all layers in the current section are empty, otherwise {@code false}.
+         * @return the block's texture.
          */
-        public boolean isEmpty() {
-            return Arrays.stream(blocks).allMatch(Objects::isNull);
+        public int getVariant() {
+            return variant;
         }
 
         /**
-         * @return all the blocks in the section, including {@code null} blocks.
+         * @return the mask of the overlays painted on the block.
          */
-        public ArrayList<BlockController> getBlocks() {
-            return new ArrayList<>(Arrays.stream(blocks).toList());
+        public int getOverlays() {
+            return overlays;
         }
 
-        public String toString() {
-            return "SceneSection{" +
-                    "position=" + position +
-                    ", blocks=" + Arrays.toString(blocks) +
-                    '}';
+        /**
+         * @return the overlay images painted on the block, see {@link com.ca.resources.CompositeCache}.
+         */
+        public int getOverlaySet() {
+            return overlaySet;
+        }
+
+        /**
+         * @return the controller created for the block, {@code null} if there is none.
+         */
+        public BlockController getInstance() {
+            return instance;
         }
     }
 }
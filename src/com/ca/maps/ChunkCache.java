@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.maps;
+
+import com.ca.constants.Basic;
+import com.ca.errors.Logger;
+import com.ca.game.BlockManager;
+import com.ca.game.Viewport;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * Pre-rendered images of the static blocks of a {@link Scene} (see {@link BlockManager.BlockData#isStatic()}). <br>
+ * The scene is split in square chunks of {@link BlockPlane#CHUNK_SIZE} cells, and each chunk keeps one image for
+ * each layer with the static blocks of that layer already drawn in order. A frame then only draws the few chunk
+ * images in view instead of every single block, while the animated blocks and the blocks with a hitbox (whose print
+ * priority follows the subject) are still drawn one by one on top of them. <br>
+ * The images are accelerated {@link VolatileImage}s when a screen is available, otherwise {@link BufferedImage}s.
+ * They are drawn the first time a chunk comes in view and again only when one of its blocks changes. The images of
+ * the chunks that stay out of view for a while are released.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class ChunkCache {
+
+    private static final Scene.Layer[] LAYER_VALUES = Scene.Layer.values();
+    private static final int LAYERS = LAYER_VALUES.length;
+
+    /**
+     * The size of a chunk in pixels.
+     */
+    private static final int CHUNK_WIDTH = BlockPlane.CHUNK_SIZE * Basic.DEFAULT_BLOCK_WIDTH;
+    private static final int CHUNK_HEIGHT = BlockPlane.CHUNK_SIZE * Basic.DEFAULT_BLOCK_HEIGHT;
+
+    /**
+     * How long, in milliseconds, a chunk image is kept after it was last drawn.
+     */
+    private static final long RELEASE_TIME = 5000;
+
+    private final HashMap<Long, Chunk> chunks = new HashMap<>();
+
+    /**
+     * The configuration used to create accelerated images, {@code null} if there is no screen.
+     */
+    private final GraphicsConfiguration config = GraphicsEnvironment.isHeadless() ? null :
+            GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+
+    /**
+     * The scene drawn by the chunks, {@code null} until the cache is built.
+     */
+    private Scene scene = null;
+    private long lastRelease = 0;
+
+    /**
+     * Assigns the static blocks to their chunks. The images are drawn later, when each chunk is first rendered.
+     * @param scene the scene to cache.
+     */
+    public synchronized void build(Scene scene) {
+
+        chunks.clear();
+
+        this.scene = scene;
+
+        scene.forEach(tile -> add(tile.getX(), tile.getY(), BlockManager.getData(tile.getType())));
+    }
+
+    /**
+     * Updates the chunks after a block of the scene has been replaced. Changes made before the cache is built are
+     * ignored, since the build reads all the scene's blocks.
+     * @param x the x grid coordinate of the block.
+     * @param y the y grid coordinate of the block.
+     * @param removed the type of the block that was removed from the scene, can be {@code null}.
+     * @param added the type of the block that was added to the scene, can be {@code null}.
+     */
+    public synchronized void update(int x, int y, BlockManager.BlockData removed, BlockManager.BlockData added) {
+
+        if (scene == null) {
+            return;
+        }
+
+        if (removed != null) {
+            remove(x, y, removed);
+        }
+
+        if (added != null) {
+            add(x, y, added);
+        }
+    }
+
+    /**
+     * Redraws the chunks of the given block the next time they are rendered. Needed when the look of a static block
+     * changes, like when an overlay is painted on it.
+     * @param x the x grid coordinate of the block.
+     * @param y the y grid coordinate of the block.
+     * @param data the type of the block.
+     */
+    public synchronized void invalidate(int x, int y, BlockManager.BlockData data) {
+
+        if (scene == null || !data.isStatic()) {
+            return;
+        }
+
+        int layer = data.getLayer().ordinal();
+
+        forEachChunk(x, y, data, false, chunk -> chunk.dirty[layer] = true);
+    }
+
+    /**
+     * Redraws all the chunks the next time they are rendered.
+     */
+    public synchronized void invalidateAll() {
+        for(Chunk chunk : chunks.values()) {
+            Arrays.fill(chunk.dirty, true);
+        }
+    }
+
+    /**
+     * @return {@code true} if the cache has been built, otherwise {@code false}.
+     */
+    public synchronized boolean isBuilt() {
+        return scene != null;
+    }
+
+    /**
+     * Draws the static blocks of the given layer that are in view.
+     * @param g the graphics to draw on.
+     * @param layer the layer to draw.
+     */
+    public synchronized void render(Graphics g, Scene.Layer layer) {
+
+        int offsetX = Viewport.getOffsetX();
+        int offsetY = Viewport.getOffsetY();
+
+        int fromX = Math.floorDiv(Viewport.getX(), CHUNK_WIDTH);
+        int fromY = Math.floorDiv(Viewport.getY(), CHUNK_HEIGHT);
+        int toX = Math.floorDiv(Viewport.getX() + Viewport.getWidth() - 1, CHUNK_WIDTH);
+        int toY = Math.floorDiv(Viewport.getY() + Viewport.getHeight() - 1, CHUNK_HEIGHT);
+
+        long now = System.currentTimeMillis();
+        int l = layer.ordinal();
+
+        for(int cy = fromY; cy <= toY; cy++) {
+            for(int cx = fromX; cx <= toX; cx++) {
+                Chunk chunk = chunks.get(chunkKey(cx, cy));
+
+                if (chunk == null || chunk.blocks[l] == 0) {
+                    continue;
+                }
+
+                Image image = prepare(chunk, l);
+
+                g.drawImage(image, cx * CHUNK_WIDTH + offsetX, cy * CHUNK_HEIGHT + offsetY, null);
+
+                // The accelerated memory has been lost while drawing, the chunk is drawn again the next frame
+                if (image instanceof VolatileImage volatileImage && volatileImage.contentsLost()) {
+                    chunk.dirty[l] = true;
+                }
+
+                chunk.lastUsed = now;
+            }
+        }
+
+        if (now - lastRelease > RELEASE_TIME) {
+            lastRelease = now;
+            release(now);
+        }
+    }
+
+    /**
+     * Makes sure the image of the given chunk layer exists and is up-to-date.
+     * @return the image to draw.
+     */
+    private Image prepare(Chunk chunk, int layer) {
+
+        Image image = chunk.images[layer];
+
+        if (image == null) {
+            image = chunk.images[layer] = createImage();
+            chunk.dirty[layer] = true;
+        }
+
+        if (image instanceof VolatileImage volatileImage) {
+            int status = volatileImage.validate(config);
+
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                volatileImage.flush();
+                image = chunk.images[layer] = createImage();
+                chunk.dirty[layer] = true;
+            }
+            else if (status == VolatileImage.IMAGE_RESTORED) {
+                chunk.dirty[layer] = true;
+            }
+        }
+
+        if (chunk.dirty[layer]) {
+            rasterize(chunk, layer, image);
+            chunk.dirty[layer] = false;
+        }
+
+        return image;
+    }
+
+    /**
+     * Draws all the static blocks of the chunk layer on the given image.
+     */
+    private void rasterize(Chunk chunk, int layer, Image image) {
+
+        Graphics2D g = (Graphics2D) image.getGraphics();
+
+        // Clears the old content
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, CHUNK_WIDTH, CHUNK_HEIGHT);
+        g.setComposite(AlphaComposite.SrcOver);
+
+        // Blocks bigger than a cell can start in another chunk, the image clips them
+        scene.draw(g, LAYER_VALUES[layer], chunk.x * CHUNK_WIDTH, chunk.y * CHUNK_HEIGHT, CHUNK_WIDTH, CHUNK_HEIGHT,
+                -chunk.x * CHUNK_WIDTH, -chunk.y * CHUNK_HEIGHT, Scene.Filter.STATIC);
+
+        g.dispose();
+    }
+
+    private Image createImage() {
+
+        if (config != null) {
+            try {
+                VolatileImage image = config.createCompatibleVolatileImage(CHUNK_WIDTH, CHUNK_HEIGHT, Transparency.TRANSLUCENT);
+
+                if (image != null) {
+                    return image;
+                }
+            }
+            catch (Exception e) {
+                Logger.logOnce(Logger.WARNING, "Accelerated chunk images are not available, the map will be cached in memory.");
+            }
+        }
+
+        return new BufferedImage(CHUNK_WIDTH, CHUNK_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Releases the images of the chunks that haven't been drawn recently.
+     */
+    private void release(long now) {
+        for(Chunk chunk : chunks.values()) {
+            if (now - chunk.lastUsed <= RELEASE_TIME) {
+                continue;
+            }
+
+            for(int l = 0; l < LAYERS; l++) {
+                if (chunk.images[l] != null) {
+                    chunk.images[l].flush();
+                    chunk.images[l] = null;
+                }
+            }
+        }
+    }
+
+    private void add(int x, int y, BlockManager.BlockData data) {
+
+        if (!data.isStatic()) {
+            return;
+        }
+
+        int layer = data.getLayer().ordinal();
+
+        forEachChunk(x, y, data, true, chunk -> {
+            chunk.blocks[layer]++;
+            chunk.dirty[layer] = true;
+        });
+    }
+
+    private void remove(int x, int y, BlockManager.BlockData data) {
+
+        if (!data.isStatic()) {
+            return;
+        }
+
+        int layer = data.getLayer().ordinal();
+
+        forEachChunk(x, y, data, false, chunk -> {
+            chunk.blocks[layer]--;
+            chunk.dirty[layer] = true;
+
+            // Drops the chunks left without blocks
+            if (chunk.isEmpty()) {
+                chunk.flush();
+                chunks.remove(chunkKey(chunk.x, chunk.y));
+            }
+        });
+    }
+
+    /**
+     * Runs the action on all the chunks overlapped by the block's texture.
+     * @param create if {@code true} the missing chunks are created.
+     */
+    private void forEachChunk(int gridX, int gridY, BlockManager.BlockData data, boolean create, Consumer<Chunk> action) {
+
+        int x = gridX * Basic.DEFAULT_BLOCK_WIDTH;
+        int y = gridY * Basic.DEFAULT_BLOCK_HEIGHT;
+
+        int fromX = Math.floorDiv(x, CHUNK_WIDTH);
+        int fromY = Math.floorDiv(y, CHUNK_HEIGHT);
+        int toX = Math.floorDiv(x + Math.max(data.getWidth(), 1) - 1, CHUNK_WIDTH);
+        int toY = Math.floorDiv(y + Math.max(data.getHeight(), 1) - 1, CHUNK_HEIGHT);
+
+        for(int cy = fromY; cy <= toY; cy++) {
+            for(int cx = fromX; cx <= toX; cx++) {
+                long key = chunkKey(cx, cy);
+                Chunk chunk = chunks.get(key);
+
+                if (chunk == null) {
+                    if (!create) {
+                        continue;
+                    }
+
+                    chunk = new Chunk(cx, cy);
+                    chunks.put(key, chunk);
+                }
+
+                action.accept(chunk);
+            }
+        }
+    }
+
+    private static long chunkKey(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The number of static blocks overlapping a chunk and their images, one for each layer.
+     */
+    private static class Chunk {
+
+        private final int x;
+        private final int y;
+
+        private final int[] blocks = new int[LAYERS];
+        private final Image[] images = new Image[LAYERS];
+        private final boolean[] dirty = new boolean[LAYERS];
+
+        private long lastUsed = 0;
+
+        private Chunk(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        private boolean isEmpty() {
+            for(int count : blocks) {
+                if (count > 0) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private void flush() {
+            for(Image image : images) {
+                if (image != null) {
+                    image.flush();
+                }
+            }
+        }
+    }
+}
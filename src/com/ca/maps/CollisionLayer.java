@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.maps;
+
+import com.ca.constants.Basic;
+import com.ca.constants.Position;
+import com.ca.entities.HitBox;
+import com.ca.entities.controllers.BlockController;
+import com.ca.errors.Logger;
+import com.ca.game.Sweep;
+
+import java.util.List;
+
+/**
+ * Precomputed collision data of a {@link Scene}. Each grid cell has a bit telling if any of its blocks is solid, and
+ * for each {@link Scene.Layer} the hitbox rectangle of the block in that layer, relative to the cell origin. <br>
+ * A collision test only looks at the cells that can contain a hitbox overlapping the tested rectangle, so its cost
+ * doesn't depend on the number of blocks in the scene. <br>
+ * The layer is built once by {@link com.ca.resources.MapLoader} when the map is loaded, after that every block added
+ * to the scene updates it.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class CollisionLayer {
+
+    private static final int LAYERS = Scene.Layer.values().length;
+
+    /**
+     * The rectangle values are packed in a single {@code int}, one byte each (x, y, width, height).
+     */
+    private static final int BOX_MAX = 0xFF;
+
+    /**
+     * The grid coordinates of the upper left cell and the size of the layer in cells.
+     */
+    private int originX;
+    private int originY;
+    private int width;
+    private int height;
+
+    /**
+     * One bit for each cell, set if the cell contains at least one solid block.
+     */
+    private long[] solid = new long[0];
+
+    /**
+     * The packed hitbox of each block, {@link CollisionLayer#LAYERS} entries for each cell. A value of {@code 0}
+     * means there is no solid block in that layer.
+     */
+    private int[] boxes = new int[0];
+
+    /**
+     * How far, in pixels, a block hitbox can reach from its cell origin. Used to know which cells have to be checked
+     * around a rectangle.
+     */
+    private int reachX = Basic.DEFAULT_BLOCK_WIDTH;
+    private int reachY = Basic.DEFAULT_BLOCK_HEIGHT;
+
+    private boolean built = false;
+
+    /**
+     * Builds the layer from the given blocks, sizing it to fit all of them.
+     * @param blocks all the blocks of the scene.
+     */
+    public synchronized void build(List<BlockController> blocks) {
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+
+        for(BlockController block : blocks) {
+            Position p = Position.toGrid(block.getPosition());
+
+            minX = Math.min(minX, p.x);
+            minY = Math.min(minY, p.y);
+            maxX = Math.max(maxX, p.x);
+            maxY = Math.max(maxY, p.y);
+        }
+
+        if (blocks.isEmpty()) {
+            minX = minY = maxX = maxY = 0;
+        }
+
+        allocate(minX, minY, maxX - minX + 1, maxY - minY + 1);
+
+        built = true;
+
+        // The blocks are still in the layer of their type, their print priority hasn't changed yet
+        for(BlockController block : blocks) {
+            set(Position.toGrid(block.getPosition()), block.getLayer(), block);
+        }
+    }
+
+    /**
+     * Updates a cell of the layer, overwriting the block in the same layer. Changes made before the layer is built
+     * are ignored, since the build reads all the scene's blocks.
+     * @param gridX the x grid coordinate of the cell.
+     * @param gridY the y grid coordinate of the cell.
+     * @param layer the layer of the block in the scene.
+     * @param block the block added to the scene, {@code null} if the new block has no hitbox.
+     */
+    public synchronized void update(int gridX, int gridY, Scene.Layer layer, BlockController block) {
+        if (built) {
+            set(new Position(gridX, gridY), layer, block);
+        }
+    }
+
+    /**
+     * Checks if the given rectangle overlaps any solid block hitbox.
+     * @param x the absolute x coordinate of the rectangle.
+     * @param y the absolute y coordinate of the rectangle.
+     * @param w the rectangle's width.
+     * @param h the rectangle's height.
+     * @return {@code true} if the rectangle intersects a solid block, otherwise {@code false}.
+     */
+    public synchronized boolean intersects(int x, int y, int w, int h) {
+
+        if (w <= 0 || h <= 0) {
+            return false;
+        }
+
+        // A block can only reach the rectangle if its cell origin is inside the rectangle expanded by the reach
+        int fromX = Math.max(Math.floorDiv(x - reachX, Basic.DEFAULT_BLOCK_WIDTH) - originX, 0);
+        int fromY = Math.max(Math.floorDiv(y - reachY, Basic.DEFAULT_BLOCK_HEIGHT) - originY, 0);
+        int toX = Math.min(Math.floorDiv(x + w - 1, Basic.DEFAULT_BLOCK_WIDTH) - originX, width - 1);
+        int toY = Math.min(Math.floorDiv(y + h - 1, Basic.DEFAULT_BLOCK_HEIGHT) - originY, height - 1);
+
+        for(int cy = fromY; cy <= toY; cy++) {
+            for(int cx = fromX; cx <= toX; cx++) {
+                int cell = cy * width + cx;
+
+                if ((solid[cell >>> 6] & (1L << cell)) == 0) {
+                    continue;
+                }
+
+                int cellX = (cx + originX) * Basic.DEFAULT_BLOCK_WIDTH;
+                int cellY = (cy + originY) * Basic.DEFAULT_BLOCK_HEIGHT;
+
+                for(int layer = 0; layer < LAYERS; layer++) {
+                    int box = boxes[cell * LAYERS + layer];
+
+                    if (box == 0) {
+                        continue;
+                    }
+
+                    int bx = cellX + (box >>> 24);
+                    int by = cellY + ((box >>> 16) & BOX_MAX);
+                    int bw = (box >>> 8) & BOX_MAX;
+                    int bh = box & BOX_MAX;
+
+                    if (bx < x + w && by < y + h && x < bx + bw && y < by + bh) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Sweeps the given rectangle along the move set in the {@link Sweep} against all the solid block hitboxes around
+     * its path. The earliest impact is stored in the sweep.
+     * @param x the absolute x coordinate of the rectangle.
+     * @param y the absolute y coordinate of the rectangle.
+     * @param w the rectangle's width.
+     * @param h the rectangle's height.
+     * @param dx the x component of the move.
+     * @param dy the y component of the move.
+     * @param sweep the sweep where to store the result, already reset with the same move.
+     */
+    public synchronized void sweep(int x, int y, int w, int h, int dx, int dy, Sweep sweep) {
+
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+
+        // The path of the rectangle is the union of its start and end position
+        int minX = Math.min(x, x + dx);
+        int minY = Math.min(y, y + dy);
+        int maxX = Math.max(x, x + dx) + w;
+        int maxY = Math.max(y, y + dy) + h;
+
+        int fromX = Math.max(Math.floorDiv(minX - reachX, Basic.DEFAULT_BLOCK_WIDTH) - originX, 0);
+        int fromY = Math.max(Math.floorDiv(minY - reachY, Basic.DEFAULT_BLOCK_HEIGHT) - originY, 0);
+        int toX = Math.min(Math.floorDiv(maxX - 1, Basic.DEFAULT_BLOCK_WIDTH) - originX, width - 1);
+        int toY = Math.min(Math.floorDiv(maxY - 1, Basic.DEFAULT_BLOCK_HEIGHT) - originY, height - 1);
+
+        for(int cy = fromY; cy <= toY; cy++) {
+            for(int cx = fromX; cx <= toX; cx++) {
+                int cell = cy * width + cx;
+
+                if ((solid[cell >>> 6] & (1L << cell)) == 0) {
+                    continue;
+                }
+
+                int cellX = (cx + originX) * Basic.DEFAULT_BLOCK_WIDTH;
+                int cellY = (cy + originY) * Basic.DEFAULT_BLOCK_HEIGHT;
+
+                for(int layer = 0; layer < LAYERS; layer++) {
+                    int box = boxes[cell * LAYERS + layer];
+
+                    if (box != 0) {
+                        sweep.test(x, y, w, h, cellX + (box >>> 24), cellY + ((box >>> 16) & BOX_MAX),
+                                (box >>> 8) & BOX_MAX, box & BOX_MAX);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param gridX the x grid coordinate.
+     * @param gridY the y grid coordinate.
+     * @return {@code true} if the cell contains at least one solid block, otherwise {@code false}.
+     */
+    public synchronized boolean isSolid(int gridX, int gridY) {
+
+        int cx = gridX - originX;
+        int cy = gridY - originY;
+
+        if (cx < 0 || cy < 0 || cx >= width || cy >= height) {
+            return false;
+        }
+
+        int cell = cy * width + cx;
+
+        return (solid[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Writes the block's hitbox in its cell, growing the layer if the block is out of its bounds.
+     */
+    private void set(Position p, Scene.Layer layer, BlockController block) {
+
+        if (block == null && !isSolid(p.x, p.y)) {
+            return;
+        }
+
+        if (p.x < originX || p.y < originY || p.x >= originX + width || p.y >= originY + height) {
+            grow(p.x, p.y);
+        }
+
+        int cell = (p.y - originY) * width + (p.x - originX);
+        int slot = cell * LAYERS + layer.ordinal();
+
+        boxes[slot] = block == null ? 0 : pack(block);
+
+        // Recomputes the solid flag since the new block could have replaced a solid one
+        boolean isSolid = false;
+        for(int l = 0; l < LAYERS && !isSolid; l++) {
+            isSolid = boxes[cell * LAYERS + l] != 0;
+        }
+
+        if (isSolid) {
+            solid[cell >>> 6] |= 1L << cell;
+        }
+        else {
+            solid[cell >>> 6] &= ~(1L << cell);
+        }
+    }
+
+    /**
+     * Packs the block's hitbox relative to its cell origin.
+     * @return the packed hitbox, or {@code 0} if the block is not solid.
+     */
+    private int pack(BlockController block) {
+
+        HitBox hb = block.getHitBox();
+
+        if (hb == null || hb.getWidth() <= 0 || hb.getHeight() <= 0) {
+            return 0;
+        }
+
+        int x = hb.getX() - block.getPosition().x;
+        int y = hb.getY() - block.getPosition().y;
+        int w = hb.getWidth();
+        int h = hb.getHeight();
+
+        if (x < 0 || y < 0 || x > BOX_MAX || y > BOX_MAX || w > BOX_MAX || h > BOX_MAX) {
+            Logger.logOnce(Logger.WARNING, "The hitbox of the block '" + block.getName() + "' doesn't fit the collision layer, it will be clamped.");
+
+            x = Math.min(Math.max(x, 0), BOX_MAX);
+            y = Math.min(Math.max(y, 0), BOX_MAX);
+            w = Math.min(w, BOX_MAX);
+            h = Math.min(h, BOX_MAX);
+        }
+
+        reachX = Math.max(reachX, x + w);
+        reachY = Math.max(reachY, y + h);
+
+        return (x << 24) | (y << 16) | (w << 8) | h;
+    }
+
+    /**
+     * Grows the layer so that it includes the given cell, leaving some free space around it for the next edits.
+     */
+    private void grow(int gridX, int gridY) {
+
+        final int margin = BlockPlane.CHUNK_SIZE;
+
+        int newOriginX = Math.min(originX, gridX - margin);
+        int newOriginY = Math.min(originY, gridY - margin);
+        int newWidth = Math.max(originX + width, gridX + margin + 1) - newOriginX;
+        int newHeight = Math.max(originY + height, gridY + margin + 1) - newOriginY;
+
+        long[] oldSolid = solid;
+        int[] oldBoxes = boxes;
+        int oldOriginX = originX, oldOriginY = originY, oldWidth = width, oldHeight = height;
+
+        allocate(newOriginX, newOriginY, newWidth, newHeight);
+
+        for(int cy = 0; cy < oldHeight; cy++) {
+            for(int cx = 0; cx < oldWidth; cx++) {
+                int oldCell = cy * oldWidth + cx;
+
+                if ((oldSolid[oldCell >>> 6] & (1L << oldCell)) == 0) {
+                    continue;
+                }
+
+                int cell = (cy + oldOriginY - originY) * width + (cx + oldOriginX - originX);
+
+                solid[cell >>> 6] |= 1L << cell;
+                System.arraycopy(oldBoxes, oldCell * LAYERS, boxes, cell * LAYERS, LAYERS);
+            }
+        }
+    }
+
+    private void allocate(int originX, int originY, int width, int height) {
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+
+        solid = new long[(width * height + 63) >>> 6];
+        boxes = new int[width * height * LAYERS];
+    }
+}
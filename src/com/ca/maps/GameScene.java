@@ -17,12 +17,11 @@ package com.ca.maps;
 
 import com.ca.constants.Basic;
 import com.ca.constants.Position;
-import com.ca.entities.characters.Camera;
+import com.ca.entities.HitBox;
 import com.ca.entities.controllers.BlockController;
-import com.ca.events.GameMouseHandler;
-import com.ca.events.GameWindowHandler;
-import com.ca.game.CameraManager;
 import com.ca.game.EntityManager;
+import com.ca.game.Viewport;
+import com.ca.gui.PostRenderer;
 import com.ca.resources.MapLoader;
 
 import java.awt.*;
@@ -59,6 +58,19 @@ public class GameScene {
         return scene;
     }
 
+    /**
+     * Replaces a block of the loaded map and computes again the overlays around it.
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param type the block type, see {@link com.ca.game.BlockManager#getType(String)}.
+     * @param variant the block's texture, if it's not valid a random texture is used.
+     */
+    public void setBlock(int x, int y, int type, int variant) {
+        scene.set(x, y, type, variant);
+
+        PostRenderer.update(this, x, y);
+    }
+
     /**
      * Sets the name of the current map.
      * @param name the map name.
@@ -75,37 +87,56 @@ public class GameScene {
     }
 
     /**
-     * Renders the map on the screen.
-     * @param g  the graphics to draw the map on.
-     * @param layer the block layer to draw.
+     * Updates the print priority of the blocks with a hitbox, based on the subject's position, so that they are drawn
+     * in front of the subject or behind it. This has to be called once per frame, before rendering any layer.
      */
-    public void render(Graphics g, Scene.Layer layer) {
+    public void updatePrintPriorities() {
+
+        HitBox subject = EntityManager.subject.getHitBox();
+
+        if (subject == null) {
+            return;
+        }
+
+        // Maximum value that a block can reach, which is level 11
+        int max = Scene.Layer.FOREGROUND.getHigh();
 
-        // Prints all blocks in the given layer
-        for(BlockController block : scene.getLayer(layer)) {
+        // Minimum value that a block can reach, which is level 4
+        int min = Scene.Layer.MIDDLEGROUND.getLow();
+
+        for(BlockController block : scene.getSolidBlocks()) {
 
             // Handles the print priority based on the entity position
-            if (block.getHitBox() != null) {
-                int heightDifference = (EntityManager.get(Basic.SUBJECT.IGN()).getHitBox().getY() - (block.getHitBox().getY() + block.getHitBox().getHeight())) / block.getHitBox().getHeight();
+            int heightDifference = (subject.getY() - (block.getHitBox().getY() + block.getHitBox().getHeight())) / block.getHitBox().getHeight();
 
-                int newPriority = block.getDefaultPrintPriority() - heightDifference;
+            int newPriority = block.getDefaultPrintPriority() - heightDifference;
 
-                // Maximum value that a block can reach, which is level 11
-                int max = Scene.Layer.FOREGROUND.getHigh();
+            // Sets the priority between ranges
+            scene.setPrintPriority(block, Math.max(min, Math.min(newPriority, max)));
+        }
+    }
 
-                // Minimum value that a block can reach, which is level 4
-                int min = Scene.Layer.MIDDLEGROUND.getLow();
+    /**
+     * Renders the map on the screen.
+     * @param g  the graphics to draw the map on.
+     * @param layer the block layer to draw.
+     */
+    public void render(Graphics g, Scene.Layer layer) {
+
+        // Only the blocks in view are drawn
+        if (Basic.CACHE_STATIC_BLOCKS && !Basic.DEBUG_MODE) {
 
-                // Sets the priority between ranges
-                if (newPriority < min) {
-                    block.setPrintPriority(min);
-                }
-                else {
-                    block.setPrintPriority(Math.min(newPriority, max));
-                }
-            }
+            // Static blocks come from the chunk images, only the others are drawn one by one
+            scene.getChunkCache().render(g, layer);
 
-            block.render(g);
+            scene.draw(g, layer, Viewport.getX(), Viewport.getY(), Viewport.getWidth(), Viewport.getHeight(),
+                    Viewport.getOffsetX(), Viewport.getOffsetY(), Scene.Filter.DYNAMIC);
+        }
+        else {
+
+            // Prints all blocks in the given layer
+            scene.draw(g, layer, Viewport.getX(), Viewport.getY(), Viewport.getWidth(), Viewport.getHeight(),
+                    Viewport.getOffsetX(), Viewport.getOffsetY(), Scene.Filter.ALL);
         }
 
         if (Basic.DEBUG_MODE && Basic.DEBUG_RENDER_MAP_BORDER) {
@@ -114,10 +145,7 @@ public class GameScene {
 
             Position scenePos = scene.getGridPosition();
 
-            Camera c = CameraManager.get(Camera.MAIN_CAMERA);
-
-            g.drawRect(scenePos.x - c.getPosition().x + (GameWindowHandler.getWindowWidth() / (int) (2 * GameMouseHandler.defaultScale)) - c.getSubjectWidth() / 2,
-                    scenePos.y - c.getPosition().y + (GameWindowHandler.getWindowHeight() / (int) (2 * GameMouseHandler.defaultScale)) - c.getSubjectHeight() / 2,
+            g.drawRect(scenePos.x + Viewport.getOffsetX(), scenePos.y + Viewport.getOffsetY(),
                     getScene().getWidth() * 32, getScene().getHeight() * 32);
         }
     }
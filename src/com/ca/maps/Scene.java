@@ -16,93 +16,456 @@
 package com.ca.maps;
 
 import com.ca.constants.Basic;
+import com.ca.constants.Direction;
 import com.ca.constants.Position;
 import com.ca.entities.controllers.BlockController;
 import com.ca.errors.general.InputNotValid;
+import com.ca.game.BlockManager;
+import com.ca.resources.CompositeCache;
+import com.ca.resources.Utility;
 
+import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.util.*;
+import java.util.List;
 
 /**
- * Defines a {@code XY} grid where x is the width of each texture and Y is the height of the block texture.
+ * Defines a {@code XY} grid where x is the width of each texture and Y is the height of the block texture. <br>
+ * The grid only stores the type of each block (see {@link BlockPlane}): the blocks are drawn from the data shared
+ * by their type, and a {@link BlockController} is created only for the blocks with a hitbox, whose print priority
+ * follows the subject, or when something asks for one with {@link Scene#getBlock(int, int, Layer)}.
  * @since 1.0.00
  * @author Macaluso Francesco
  */
 public class Scene {
 
     /**
-     * Links all grid positions to the block controllers.
+     * Which blocks {@link Scene#draw(Graphics, Layer, int, int, int, int, int, int, Filter)} draws.
+     */
+    enum Filter {
+
+        /**
+         * Only the blocks that never change, see {@link BlockManager.BlockData#isStatic()}.
+         */
+        STATIC,
+
+        /**
+         * Only the animated blocks and the blocks with a hitbox.
+         */
+        DYNAMIC,
+
+        /**
+         * All the blocks.
+         */
+        ALL
+    }
+
+    /**
+     * Links all grid positions to the blocks.
      */
     private final BlockPlane scenes = new BlockPlane();
 
     /**
-     * Adds a block on the grid.
-     * @param block the block to be added.
+     * Solid cells of the scene, used by the block collisions.
+     */
+    private final CollisionLayer collisions = new CollisionLayer();
+
+    /**
+     * Pre-rendered images of the static blocks of the scene.
      */
-    public void add(BlockController block) {
-        scenes.add(block);
+    private final ChunkCache chunks = new ChunkCache();
+
+    /**
+     * All the blocks with a hitbox, their print priority changes with the subject's position.
+     */
+    private final List<BlockController> solidBlocks = new ArrayList<>();
+
+    /**
+     * The biggest texture size of the blocks in the scene, used to know how far above or on the left of an area a
+     * block can start while its texture still overlaps the area.
+     */
+    private int maxBlockWidth = Basic.DEFAULT_BLOCK_WIDTH;
+    private int maxBlockHeight = Basic.DEFAULT_BLOCK_HEIGHT;
+
+    /**
+     * Puts a block on the grid, replacing the block in the same layer.
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param type the block type, see {@link BlockManager#getType(String)}.
+     * @param variant the block's texture, if it's not valid a random texture is used.
+     */
+    public void set(int x, int y, int type, int variant) {
+
+        BlockManager.BlockData data = BlockManager.getData(type);
+        Layer layer = data.getLayer();
+
+        if (variant < 0 || variant >= data.animation().length) {
+            variant = Utility.getRandom(data.animation().length);
+        }
+
+        BlockController replacedBlock = scenes.getInstance(x, y, layer);
+        int replaced = scenes.set(x, y, layer, type, variant);
+
+        if (replacedBlock != null) {
+            solidBlocks.remove(replacedBlock);
+        }
+
+        maxBlockWidth = Math.max(maxBlockWidth, data.getWidth());
+        maxBlockHeight = Math.max(maxBlockHeight, data.getHeight());
+
+        // The blocks with a hitbox always have a controller
+        BlockController block = null;
+
+        if (data.hitBox() != null) {
+            block = getBlock(x, y, layer);
+            solidBlocks.add(block);
+        }
+
+        collisions.update(x, y, layer, block);
+        chunks.update(x, y, replaced < 0 ? null : BlockManager.getData(replaced), data);
     }
 
     /**
-     * Finds all blocks of a specific layer and returns them as a ordered {@link List<BlockController>}.
-     * @param targetLayer the layer to look for in the {@link Layer} enumerator.
-     * @return a list of the blocks in order of print priority. (less -> most)
+     * Gets the controller of a block, creating it the first time it's requested. The controller is kept until the
+     * block is replaced.
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer of the block.
+     * @return the controller of the block, {@code null} if the layer is empty.
      */
-    public List<BlockController> getLayer(Layer targetLayer) {
+    public BlockController getBlock(int x, int y, Layer layer) {
+
+        BlockController block = scenes.getInstance(x, y, layer);
 
-        List<BlockController> ordered = getBlocks().stream().filter(b -> b.getLayer() == targetLayer).toList();
+        if (block != null) {
+            return block;
+        }
+
+        int type = scenes.getType(x, y, layer);
 
-        return ordered.stream().sorted(Comparator.comparingInt(BlockController::getPrintPriority))
-                .sorted(Comparator.comparingInt(o -> o.getPosition().y)).toList();
+        if (type < 0) {
+            return null;
+        }
+
+        block = BlockManager.create(type, scenes.getVariant(x, y, layer), x, y);
+
+        int overlays = scenes.getOverlays(x, y, layer);
+
+        for(Direction d : Direction.values()) {
+            if ((overlays & (1 << d.ordinal())) != 0) {
+                block.paintOverlay(d, getOverlay(x, y, layer, d));
+            }
+        }
+
+        scenes.setInstance(x, y, layer, block);
+
+        return block;
     }
 
     /**
-     * @return the scene grid position.
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer to look for.
+     * @return the type of the block, {@code -1} if the layer is empty.
      */
-    public Position getGridPosition() {
-        return scenes.getGridPosition();
+    public int getType(int x, int y, Layer layer) {
+        return scenes.getType(x, y, layer);
     }
 
     /**
-     * @return the map's width in blocks. To get the pixel width just multiply this my {@link Basic#DEFAULT_BLOCK_WIDTH}.
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer to look for.
+     * @return the mask of the overlays painted on the block, one bit for each direction ordinal.
      */
-    public int getWidth() {
-        return scenes.getWidth();
+    public int getOverlays(int x, int y, Layer layer) {
+        return scenes.getOverlays(x, y, layer);
     }
 
     /**
-     * @return the map's height in blocks. To get the pixel height just multiply this my {@link Basic#DEFAULT_BLOCK_HEIGHT}.
+     * Paints on a block the borders of the blocks next to it, replacing the ones painted before. The corners
+     * between two borders are painted as well.
+     * @param x the x grid coordinate.
+     * @param y the y grid coordinate.
+     * @param layer the layer of the block.
+     * @param mask the directions of the overlays, one bit for each direction ordinal. The block painting an overlay
+     *             is in the opposite direction.
      */
-    public int getHeight() {
-        return scenes.getHeight();
+    public void setOverlays(int x, int y, Layer layer, int mask) {
+
+        if (scenes.getType(x, y, layer) < 0) {
+            return;
+        }
+
+        int overlays = mask | getCorners(mask);
+
+        scenes.setOverlays(x, y, layer, overlays);
+
+        // The images are resolved once, the blocks with the same borders share their composite textures
+        BufferedImage[] images = new BufferedImage[Direction.values().length];
+
+        for(Direction d : Direction.values()) {
+            if (has(overlays, d)) {
+                images[d.ordinal()] = getOverlay(x, y, layer, d);
+            }
+        }
+
+        scenes.setOverlaySet(x, y, layer, CompositeCache.getOverlaySet(images));
+
+        BlockController block = scenes.getInstance(x, y, layer);
+
+        if (block != null) {
+            block.clearOverlays();
+
+            for(Direction d : Direction.values()) {
+                if (has(mask, d)) {
+                    block.paintOverlay(d, getOverlay(x, y, layer, d));
+                }
+            }
+        }
+
+        chunks.invalidate(x, y, BlockManager.getData(scenes.getType(x, y, layer)));
+    }
+
+    /**
+     * Finds the image of an overlay painted on a block. The corners between two borders come from the block itself,
+     * the other overlays are the borders of the block next to it (see {@link BlockManager.BlockData#overlays()}).
+     * @return the overlay's image, {@code null} if it can't be found.
+     */
+    private BufferedImage getOverlay(int x, int y, Layer layer, Direction d) {
+
+        BlockManager.BlockData data = BlockManager.getData(scenes.getType(x, y, layer));
+        int overlays = scenes.getOverlays(x, y, layer);
+
+        if (has(getCorners(overlays), d)) {
+            return getOverlay(data, d);
+        }
+
+        Position vector = Direction.convert(d, 1);
+        int source = scenes.getType(x - vector.x, y - vector.y, layer);
+
+        if (source < 0) {
+            return null;
+        }
+
+        return getOverlay(BlockManager.getData(source), data.printOnBlock() ? Direction.getOpposite(d) : d);
+    }
+
+    private static BufferedImage getOverlay(BlockManager.BlockData data, Direction d) {
+        return data.hasOverlays() && d.ordinal() < data.overlays().length ? data.overlays()[d.ordinal()] : null;
+    }
+
+    /**
+     * @return the corners between the borders of the given overlays mask, as in
+     * {@link com.ca.entities.views.BlockView#activateOverlay(Direction, BufferedImage)}.
+     */
+    private static int getCorners(int overlays) {
+
+        int corners = 0;
+
+        if (has(overlays, Direction.UP) && has(overlays, Direction.LEFT)) {
+            corners |= 1 << Direction.UP_LEFT.ordinal();
+        }
+
+        if (has(overlays, Direction.DOWN) && has(overlays, Direction.LEFT)) {
+            corners |= 1 << Direction.DOWN_LEFT.ordinal();
+        }
+
+        if (has(overlays, Direction.UP) && has(overlays, Direction.RIGHT)) {
+            corners |= 1 << Direction.UP_RIGHT.ordinal();
+        }
+
+        if (has(overlays, Direction.DOWN) && has(overlays, Direction.RIGHT)) {
+            corners |= 1 << Direction.DOWN_RIGHT.ordinal();
+        }
+
+        return corners;
+    }
+
+    private static boolean has(int overlays, Direction d) {
+        return (overlays & (1 << d.ordinal())) != 0;
     }
 
     /**
-     * @return  all the blocks in the scene.
+     * Changes the print priority of a block of the scene, moving it to its new place in the drawing order. The print
+     * priority of the blocks in a scene must only be changed with this method.
+     * @param block the block to change.
+     * @param priority the new print priority.
      */
-    public List<BlockController> getBlocks() {
-        return scenes.getAllBlocks();
+    public void setPrintPriority(BlockController block, int priority) {
+
+        if (block.getPrintPriority() == priority) {
+            return;
+        }
+
+        block.setPrintPriority(priority);
+
+        // The blocks are stored in the layer of their default priority
+        int x = Math.floorDiv(block.getPosition().x, Basic.DEFAULT_BLOCK_WIDTH);
+        int y = Math.floorDiv(block.getPosition().y, Basic.DEFAULT_BLOCK_HEIGHT);
+
+        scenes.setPrintPriority(x, y, Layer.getLayerFromPriority(block.getDefaultPrintPriority()), block.getPrintPriority());
     }
 
     /**
-     * Get the block at the given coordinate.
-     * @param x the x coordinate.
-     * @param y the y coordinate.
-     * @return the block at the given coordinate.
+     * @return all the blocks with a hitbox. The list can't be modified.
      */
-    public BlockPlane.SceneSection get(int x, int y) {
+    public List<BlockController> getSolidBlocks() {
+        return Collections.unmodifiableList(solidBlocks);
+    }
 
-        Position p = new Position(x, y);
+    /**
+     * Builds the collision layer from the blocks currently in the scene. Needs to be called once the map has been
+     * loaded, after that the layer is kept updated by {@link Scene#set(int, int, int, int)}.
+     */
+    public void buildCollisionLayer() {
+        collisions.build(solidBlocks);
+    }
 
-        return scenes.get(p);
+    /**
+     * @return the collision layer of the scene.
+     */
+    public CollisionLayer getCollisionLayer() {
+        return collisions;
+    }
+
+    /**
+     * Assigns the static blocks currently in the scene to their chunk images. Needs to be called once the map has
+     * been loaded, after that the cache is kept updated by {@link Scene#set(int, int, int, int)}.
+     */
+    public void buildChunkCache() {
+        chunks.build(this);
+    }
+
+    /**
+     * @return the pre-rendered images of the static blocks.
+     */
+    public ChunkCache getChunkCache() {
+        return chunks;
+    }
+
+    /**
+     * Runs the action on all the blocks of the scene.
+     * @param action the action to run, the tile is reused for every block.
+     */
+    public void forEach(java.util.function.Consumer<BlockPlane.Tile> action) {
+        scenes.forEach(action);
+    }
+
+    /**
+     * Runs the action on all the blocks in the given rectangle of cells, see
+     * {@link BlockPlane#forEach(int, int, int, int, java.util.function.Consumer)}.
+     * @param fromX the x grid coordinate of the first column.
+     * @param fromY the y grid coordinate of the first row.
+     * @param toX the x grid coordinate of the last column, included.
+     * @param toY the y grid coordinate of the last row, included.
+     * @param action the action to run, the tile is reused for every block.
+     */
+    public void forEach(int fromX, int fromY, int toX, int toY, java.util.function.Consumer<BlockPlane.Tile> action) {
+        scenes.forEach(fromX, fromY, toX, toY, action);
+    }
+
+    /**
+     * @return the grid coordinates of the upper left cell of each chunk of the scene, see {@link BlockPlane#CHUNK_SIZE}.
+     */
+    public List<Position> getChunks() {
+        return scenes.getChunks();
+    }
+
+    /**
+     * Draws the blocks of a layer whose texture overlaps the given area, in drawing order: from top to bottom, then
+     * by print priority and from left to right. <br>
+     * The blocks are kept in drawing order by the plane (see
+     * {@link BlockPlane#forEachInDrawOrder(Layer, int, int, int, int, java.util.function.Consumer)}), so only the
+     * cells around the area are visited and nothing is sorted.
+     * @param g the graphics to draw on.
+     * @param layer the layer to draw.
+     * @param x the absolute x coordinate of the area.
+     * @param y the absolute y coordinate of the area.
+     * @param width the area's width.
+     * @param height the area's height.
+     * @param offsetX how much the blocks are moved on the x-axis when drawn.
+     * @param offsetY how much the blocks are moved on the y-axis when drawn.
+     * @param filter which blocks to draw.
+     */
+    void draw(Graphics g, Layer layer, int x, int y, int width, int height, int offsetX, int offsetY, Filter filter) {
+
+        int fromX = Math.floorDiv(x - maxBlockWidth, Basic.DEFAULT_BLOCK_WIDTH);
+        int fromY = Math.floorDiv(y - maxBlockHeight, Basic.DEFAULT_BLOCK_HEIGHT);
+        int toX = Math.floorDiv(x + width - 1, Basic.DEFAULT_BLOCK_WIDTH);
+        int toY = Math.floorDiv(y + height - 1, Basic.DEFAULT_BLOCK_HEIGHT);
+
+        scenes.forEachInDrawOrder(layer, fromX, fromY, toX, toY, tile -> {
+            BlockManager.BlockData data = BlockManager.getData(tile.getType());
+
+            boolean isStatic = data.isStatic();
+
+            if ((filter == Filter.STATIC && !isStatic) || (filter == Filter.DYNAMIC && isStatic)) {
+                return;
+            }
+
+            int px = tile.getX() * Basic.DEFAULT_BLOCK_WIDTH;
+            int py = tile.getY() * Basic.DEFAULT_BLOCK_HEIGHT;
+
+            if (px >= x + width || py >= y + height || px + data.getWidth() <= x || py + data.getHeight() <= y) {
+                return;
+            }
+
+            BlockController block = tile.getInstance();
+
+            if (block != null && filter != Filter.STATIC) {
+                block.render(g);
+            }
+            else {
+                paint(g, data, tile, px + offsetX, py + offsetY);
+            }
+        });
+    }
+
+    /**
+     * Draws a block and its overlays from the data of its type, with a single composite image.
+     */
+    private void paint(Graphics g, BlockManager.BlockData data, BlockPlane.Tile tile, int px, int py) {
+
+        // All the blocks of the same type share the animation, so they move in lockstep
+        BufferedImage frame = data.animation()[tile.getVariant()].getCurrentFrame(Basic.DEFAULT_BLOCK_DIRECTION);
+        BufferedImage composite = CompositeCache.get(frame, tile.getOverlaySet());
+
+        g.drawImage(composite, px, py, composite.getWidth(), composite.getHeight(), null);
+
+        if (Basic.DEBUG_MODE && Basic.DEBUG_RENDER_TEXTURE) {
+            g.setColor(Basic.DEBUG_TEXTURE_COLOR);
+            g.drawRect(px, py, frame.getWidth(), frame.getHeight());
+        }
+    }
+
+    /**
+     * @return the scene grid position.
+     */
+    public Position getGridPosition() {
+        return scenes.getGridPosition();
+    }
+
+    /**
+     * @return the map's width in blocks. To get the pixel width just multiply this my {@link Basic#DEFAULT_BLOCK_WIDTH}.
+     */
+    public int getWidth() {
+        return scenes.getWidth();
+    }
+
+    /**
+     * @return the map's height in blocks. To get the pixel height just multiply this my {@link Basic#DEFAULT_BLOCK_HEIGHT}.
+     */
+    public int getHeight() {
+        return scenes.getHeight();
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("MapGrid{");
 
-        for(BlockController block : scenes.getAllBlocks()) {
-            sb.append(block).append(", ");
-        }
+        scenes.forEach(tile -> sb.append(BlockManager.getData(tile.getType()).id())
+                .append('(').append(tile.getX()).append(", ").append(tile.getY()).append("), "));
 
         return sb.append('}').toString();
     }
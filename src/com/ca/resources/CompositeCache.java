@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.resources;
+
+import com.ca.constants.Direction;
+import com.ca.errors.Logger;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Cache of the block textures with their overlays already drawn on them (see {@link com.ca.gui.PostRenderer}). <br>
+ * The overlays painted on a block are registered once as an overlay set, a combination of overlay images shared by
+ * all the blocks with the same borders. A composite image is then built the first time a base frame is drawn with a
+ * set, and reused by every block drawing the same frame with the same set, so each block is a single draw call
+ * instead of one for the base and one for each overlay. Animated blocks get a composite for each of their frames.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class CompositeCache {
+
+    /**
+     * The set without overlays, its composites are the base frames themselves.
+     */
+    public static final int NO_OVERLAYS = 0;
+
+    /**
+     * The configuration used to create images with the same layout of the screen, {@code null} if there is no
+     * screen.
+     */
+    private static final GraphicsConfiguration config = GraphicsEnvironment.isHeadless() ? null :
+            GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+
+    /**
+     * The registered overlay sets, each one with an image for each direction ordinal ({@code null} if there is no
+     * overlay in that direction), and their ids.
+     */
+    private static final List<BufferedImage[]> sets = new ArrayList<>();
+    private static final HashMap<List<BufferedImage>, Integer> setIds = new HashMap<>();
+
+    /**
+     * The composites of each base frame, indexed by overlay set.
+     */
+    private static final IdentityHashMap<BufferedImage, BufferedImage[]> composites = new IdentityHashMap<>();
+
+    static {
+        sets.add(new BufferedImage[Direction.values().length]);
+    }
+
+    /**
+     * Registers a combination of overlays, if it's new.
+     * @param overlays the overlay images indexed by direction ordinal, {@code null} where there is no overlay. The
+     *                 array is copied.
+     * @return the id of the overlay set.
+     */
+    public static synchronized int getOverlaySet(BufferedImage[] overlays) {
+
+        // The images don't override equals, so two sets are equal only if they contain the very same images
+        List<BufferedImage> key = Arrays.asList(Arrays.copyOf(overlays, Direction.values().length));
+
+        if (key.stream().allMatch(o -> o == null)) {
+            return NO_OVERLAYS;
+        }
+
+        Integer id = setIds.get(key);
+
+        if (id != null) {
+            return id;
+        }
+
+        if (sets.size() > Short.MAX_VALUE) {
+            Logger.logOnce(Logger.WARNING, "Too many overlay combinations, the new ones won't be drawn.");
+            return NO_OVERLAYS;
+        }
+
+        id = sets.size();
+
+        sets.add(key.toArray(new BufferedImage[0]));
+        setIds.put(key, id);
+
+        return id;
+    }
+
+    /**
+     * Gets the image of a frame with the overlays of a set drawn on it, building it the first time.
+     * @param base the base frame.
+     * @param overlaySet the overlay set, see {@link CompositeCache#getOverlaySet(BufferedImage[])}.
+     * @return the composite image, or the base frame itself if the set is empty.
+     */
+    public static synchronized BufferedImage get(BufferedImage base, int overlaySet) {
+
+        if (overlaySet <= NO_OVERLAYS || overlaySet >= sets.size()) {
+            return base;
+        }
+
+        BufferedImage[] frames = composites.get(base);
+
+        if (frames == null || frames.length <= overlaySet) {
+            frames = Arrays.copyOf(frames == null ? new BufferedImage[0] : frames, sets.size());
+            composites.put(base, frames);
+        }
+
+        if (frames[overlaySet] == null) {
+            frames[overlaySet] = build(base, sets.get(overlaySet));
+        }
+
+        return frames[overlaySet];
+    }
+
+    /**
+     * Drops all the composites, keeping the overlay sets. Needed when the base frames are reloaded.
+     */
+    public static synchronized void clear() {
+        composites.clear();
+    }
+
+    /**
+     * Draws the base frame and the overlays, in direction order, on a new image big enough for all of them.
+     */
+    private static BufferedImage build(BufferedImage base, BufferedImage[] overlays) {
+
+        int width = base.getWidth();
+        int height = base.getHeight();
+
+        for(BufferedImage overlay : overlays) {
+            if (overlay != null) {
+                width = Math.max(width, overlay.getWidth());
+                height = Math.max(height, overlay.getHeight());
+            }
+        }
+
+        BufferedImage image = config != null ? config.createCompatibleImage(width, height, Transparency.TRANSLUCENT) :
+                new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics g = image.getGraphics();
+
+        g.drawImage(base, 0, 0, base.getWidth(), base.getHeight(), null);
+
+        for(BufferedImage overlay : overlays) {
+            if (overlay != null) {
+                g.drawImage(overlay, 0, 0, overlay.getWidth(), overlay.getHeight(), null);
+            }
+        }
+
+        g.dispose();
+
+        return image;
+    }
+}
@@ -17,7 +17,6 @@ package com.ca.resources;
 
 import com.ca.constants.Basic;
 import com.ca.constants.Position;
-import com.ca.entities.controllers.BlockController;
 import com.ca.errors.Logger;
 import com.ca.errors.general.InputNotValid;
 import com.ca.errors.general.UnknownException;
@@ -99,7 +98,10 @@ public class MapLoader {
             String id = (String) jsonBlock.get("id");
             Long defaultTexture = ((Long)jsonBlock.get("texture"));
 
-            if (!BlockManager.has(id)) {
+            // The name is resolved once, the scene only stores the type
+            int type = BlockManager.getType(id);
+
+            if (type < 0) {
                 Logger.log(Logger.WARNING, "The block '" + id + "' couldn't be loaded into the map.");
                 continue;
             }
@@ -107,23 +109,19 @@ public class MapLoader {
             JSONObject jsonPosition = (JSONObject) jsonBlock.get("position");
             Position position = new Position(((Long) jsonPosition.get("x")).intValue(), ((Long) jsonPosition.get("y")).intValue());
 
-            BlockController block = BlockManager.get(id, position.x, position.y);
-
-            if (block == null) {
-                continue;
-            }
-
             if (defaultTexture == null) {
                 defaultTexture = Basic.DEFAULT_RANDOM_TEXTURE;
             }
 
-            block.setDefaultTexture(defaultTexture.intValue());
-
-            target.getScene().add(block);
+            // Only the block type is stored, the controllers are created by the scene when needed
+            target.getScene().set(position.x, position.y, type, defaultTexture.intValue());
 
             mapBlockCount++;
         }
 
+        target.getScene().buildCollisionLayer();
+        target.getScene().buildChunkCache();
+
         Logger.log(Logger.MESSAGE, "The map ('" + resource + "') has been loaded successfully!");
         Logger.log(Logger.MESSAGE, "The map has loaded %d blocks.".formatted(mapBlockCount));
     }
@@ -27,6 +27,7 @@ import java.awt.*;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.HashMap;
 
 /**
  * This class is the core class for all the resource management of the game. It makes available different
@@ -38,6 +39,19 @@ public final class ResourceLoader {
 
     private static final String fontPath = "fonts/" + Assets.FONT_NAME + ".ttf";
 
+    /**
+     * The parsed {@code .json} files, by path. A file is read and parsed the first time it's requested, then all
+     * the requests share the same objects.
+     */
+    private static final HashMap<String, Object> jsonFiles = new HashMap<>();
+
+    /**
+     * Statistics of the {@code .json} cache: how many files were parsed and how many requests were served by the
+     * cache.
+     */
+    private static int jsonLoads = 0;
+    private static int jsonHits = 0;
+
     static {
         Assets.FONT = loadFonts(fontPath);
     }
@@ -68,11 +82,19 @@ public final class ResourceLoader {
 
 
     /**
-     * Opens the given {@code .json} file.
+     * Opens the given {@code .json} file. The file is parsed only the first time, after that the same parsed objects
+     * are returned, so they <u>must not be modified</u>. Files that can't be read are not cached.
      * @param file  the file to open.
      * @return the file in form of {@link JSONObject} instance.
      */
-    public static Object loadJsonFile(String file) {
+    public static synchronized Object loadJsonFile(String file) {
+
+        Object cached = jsonFiles.get(file);
+
+        if (cached != null) {
+            jsonHits++;
+            return cached;
+        }
 
         // Loads the file as an input stream
         InputStream is = SpritesheetLoader.class.getResourceAsStream(file);
@@ -82,8 +104,16 @@ public final class ResourceLoader {
             return new Object();
         }
 
-        try {
-            return new JSONParser().parse(new InputStreamReader(is));
+        try (InputStreamReader reader = new InputStreamReader(is)) {
+            Object json = new JSONParser().parse(reader);
+
+            jsonLoads++;
+
+            if (json != null) {
+                jsonFiles.put(file, json);
+            }
+
+            return json;
         } catch (IOException | ParseException e) {
             Logger.log(Logger.MODE_CRITICAL, new UnknownException(MetadataDeserializer.class.getName() + ": " + e.getMessage()));
         }
@@ -91,6 +121,36 @@ public final class ResourceLoader {
         return new Object();
     }
 
+    /**
+     * Drops a parsed {@code .json} file from the cache, the next request reads it again.
+     * @param file the path of the file.
+     */
+    public static synchronized void invalidate(String file) {
+        jsonFiles.remove(file);
+    }
+
+    /**
+     * Drops all the parsed {@code .json} files from the cache.
+     */
+    public static synchronized void invalidateAll() {
+        jsonFiles.clear();
+    }
+
+    /**
+     * @return how many {@code .json} files have been read and parsed.
+     */
+    public static synchronized int getJsonLoads() {
+        return jsonLoads;
+    }
+
+    /**
+     * Logs how many {@code .json} files have been parsed and how many requests reused them.
+     */
+    public static synchronized void logCacheReport() {
+        Logger.log(Logger.MESSAGE, "Parsed %d json files, %d requests have been served by the cache."
+                .formatted(jsonLoads, jsonHits));
+    }
+
     public static InputStream loadFile(String path) {
         return ResourceLoader.class.getResourceAsStream(path);
     }
@@ -25,10 +25,13 @@ import com.ca.resources.animations.*;
 import com.ca.resources.animations.template.Animation;
 
 import javax.imageio.ImageIO;
+import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -52,16 +55,57 @@ public class SpritesheetLoader {
      */
     public static final BufferedImage EMPTY_IMAGE;
 
+    /**
+     * The configuration used to create images with the same layout of the screen, {@code null} if there is no
+     * screen.
+     */
+    private static final GraphicsConfiguration config = GraphicsEnvironment.isHeadless() ? null :
+            GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+
+    /**
+     * Statistics of the frames converted by {@link SpritesheetLoader#getFrame(BufferedImage, int, int, int, int)}: how
+     * many frames were copied, their size in bytes, and the size of the released spritesheets that have been evicted
+     * from the cache, which is the memory actually freed.
+     */
+    private static int convertedFrames = 0;
+    private static long frameBytes = 0;
+    private static long freedBytes = 0;
+
+    /**
+     * The decoded images, by path. An image is decoded the first time it's requested, then all the requests share
+     * the same image until it's invalidated, see {@link SpritesheetLoader#invalidate(String)}.
+     */
+    private static final HashMap<String, BufferedImage> images = new HashMap<>();
+
+    /**
+     * The paths of the cached spritesheets whose frames have all been cut, see {@link SpritesheetLoader#release(String)}.
+     */
+    private static final HashSet<String> released = new HashSet<>();
+
+    /**
+     * Statistics of the image cache: how many images were decoded and how many requests were served by the cache.
+     */
+    private static int imageLoads = 0;
+    private static int imageHits = 0;
+
     static {
         EMPTY_IMAGE = loadSpriteResource(Assets.PATH_OTHERS + "empty.png");
     }
 
     /**
-     * Loads the given image-type resource into memory.
+     * Loads the given image-type resource into memory. The image is decoded only the first time, after that the same
+     * image is returned, so it <u>must not be modified</u>. Images that can't be read are not cached.
      * @param res the target resource's path.
      * @return the resource as {@link BufferedImage} instance.
      */
-    public static BufferedImage loadSpriteResource(String res) {
+    public static synchronized BufferedImage loadSpriteResource(String res) {
+
+        BufferedImage cached = images.get(res);
+
+        if (cached != null) {
+            imageHits++;
+            return cached;
+        }
 
         // If the resource doesn't match the supported formats
         Utility.checkExtension(res, imagesExt);
@@ -75,8 +119,16 @@ public class SpritesheetLoader {
             return new BufferedImage(0, 0, BufferedImage.TYPE_INT_RGB);
         }
 
-        try {
-            return ImageIO.read(is);
+        try (is) {
+            BufferedImage image = ImageIO.read(is);
+
+            imageLoads++;
+
+            if (image != null) {
+                images.put(res, image);
+            }
+
+            return image;
         } catch(IOException e) {
             // All images that fail to load are considered a critical failure for the program execution. The program cannot
             // know which resources are vital for the program (such as the main block spritesheet) or not.
@@ -86,6 +138,122 @@ public class SpritesheetLoader {
         return new BufferedImage(0, 0, BufferedImage.TYPE_INT_RGB);
     }
 
+    /**
+     * Cuts a frame out of a spritesheet. <br>
+     * {@link BufferedImage#getSubimage(int, int, int, int)} returns a view sharing the whole spritesheet raster, which
+     * keeps the spritesheet in memory and can't be cached by Java2D as an accelerated image. The frame is instead
+     * copied in a new image compatible with the screen (translucent, usually premultiplied ARGB), so drawing it is a
+     * simple blit.
+     * @param spritesheet the spritesheet containing the frame.
+     * @param x the x coordinate of the frame.
+     * @param y the y coordinate of the frame.
+     * @param width the frame's width.
+     * @param height the frame's height.
+     * @return a new image with the frame's content.
+     */
+    public static BufferedImage getFrame(BufferedImage spritesheet, int x, int y, int width, int height) {
+
+        BufferedImage frame = config != null ? config.createCompatibleImage(width, height, Transparency.TRANSLUCENT) :
+                new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+
+        Graphics2D g = frame.createGraphics();
+
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(spritesheet.getSubimage(x, y, width, height), 0, 0, null);
+        g.dispose();
+
+        convertedFrames++;
+        frameBytes += getSize(frame);
+
+        return frame;
+    }
+
+    /**
+     * Marks the spritesheet with the given path as no longer used once all the animations cut from it have been
+     * loaded. The spritesheet stays in the image cache, so that the next views of the same resource don't decode it
+     * again, and it's counted in the memory freed only once it's dropped with
+     * {@link SpritesheetLoader#invalidate(String)}.
+     * @param res the path of the spritesheet released.
+     */
+    public static synchronized void release(String res) {
+        if (images.containsKey(res)) {
+            released.add(res);
+        }
+    }
+
+    /**
+     * Drops a decoded image from the cache, the next request decodes it again.
+     * @param res the path of the image.
+     */
+    public static synchronized void invalidate(String res) {
+        evict(res, images.remove(res));
+    }
+
+    /**
+     * Drops all the decoded images from the cache.
+     */
+    public static synchronized void invalidateAll() {
+        for(var entry : images.entrySet()) {
+            evict(entry.getKey(), entry.getValue());
+        }
+
+        images.clear();
+    }
+
+    /**
+     * Counts the memory freed by dropping an image, if it was a released spritesheet.
+     */
+    private static void evict(String res, BufferedImage image) {
+        if (released.remove(res) && image != null) {
+            freedBytes += getSize(image);
+        }
+    }
+
+    /**
+     * @return how many images have been read and decoded.
+     */
+    public static synchronized int getImageLoads() {
+        return imageLoads;
+    }
+
+    /**
+     * @return the bytes of the released spritesheets that have been dropped from the cache.
+     */
+    public static synchronized long getFreedMemory() {
+        return freedBytes;
+    }
+
+    /**
+     * @return the bytes of the decoded images still in the cache.
+     */
+    public static synchronized long getCachedMemory() {
+
+        long bytes = 0;
+
+        for(BufferedImage image : images.values()) {
+            bytes += getSize(image);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Logs how many frames have been converted, how much memory has been freed and how many images have been decoded.
+     */
+    public static synchronized void logConversionReport() {
+        Logger.log(Logger.MESSAGE, "Converted %d frames to screen compatible images (%d KB), %d KB of spritesheets have been freed."
+                .formatted(convertedFrames, frameBytes / 1024, getFreedMemory() / 1024));
+        Logger.log(Logger.MESSAGE, "Decoded %d images (%d KB still cached), %d requests have been served by the cache."
+                .formatted(imageLoads, getCachedMemory() / 1024, imageHits));
+    }
+
+    /**
+     * @return the approximate size in bytes of the image's pixels.
+     */
+    private static long getSize(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * Math.max(image.getColorModel().getPixelSize() / 8, 1);
+    }
+
     /**
      * Loads an animation with the help of the {@link MetadataDeserializer} class
      * @param resource the resource where to get the animation.
@@ -113,7 +281,7 @@ public class SpritesheetLoader {
             BufferedImage[] frames = new BufferedImage[metadata.getAnimationLength()];
 
             for(int x = metadata.getStartPosition().x, index = 0; x < metadata.getEndPosition().x && spritesheet != null; x += metadata.getWidth(), index++) {
-                frames[index] = spritesheet.getSubimage(x, metadata.getStartPosition().y, metadata.getWidth(), metadata.getHeight());
+                frames[index] = getFrame(spritesheet, x, metadata.getStartPosition().y, metadata.getWidth(), metadata.getHeight());
             }
 
             animations.add(new Animation(frames, Basic.DEFAULT_ANIMATION_SPEED));
@@ -151,7 +319,7 @@ public class SpritesheetLoader {
                 Logger.log(Logger.MODE_CRITICAL, new SpritesheetOutOfBounds(resource, x + msgBoxMetadata.getWidth(), spritesheet.getWidth(), msgBoxMetadata.getStartPosition().y, spritesheet.getHeight()));
             }
 
-            animations[index] = spritesheet.getSubimage(x, msgBoxMetadata.getStartPosition().y, msgBoxMetadata.getWidth(), msgBoxMetadata.getHeight());
+            animations[index] = getFrame(spritesheet, x, msgBoxMetadata.getStartPosition().y, msgBoxMetadata.getWidth(), msgBoxMetadata.getHeight());
         }
 
         return new Animation(animations, Basic.DEFAULT_ANIMATION_SPEED);
@@ -183,7 +351,7 @@ public class SpritesheetLoader {
             BufferedImage[] frames = new BufferedImage[metadata.getAnimationLength()];
 
             for(int x = metadata.getStartPosition().x, index = 0; x < metadata.getEndPosition().x && spritesheet != null; x += metadata.getWidth(), index++) {
-                frames[index] = spritesheet.getSubimage(x, metadata.getStartPosition().y, metadata.getWidth(), metadata.getHeight());
+                frames[index] = getFrame(spritesheet, x, metadata.getStartPosition().y, metadata.getWidth(), metadata.getHeight());
             }
 
             animations.add(new Animation(frames, Basic.DEFAULT_ANIMATION_SPEED));
@@ -216,7 +384,7 @@ public class SpritesheetLoader {
         BufferedImage[] animations = new BufferedImage[iconMetadata.getAnimationLength()];
 
         for(int x = iconMetadata.getStartPosition().x, index = 0; x < iconMetadata.getEndPosition().x && spritesheet != null; x += iconMetadata.getWidth(), index++) {
-            animations[index] = spritesheet.getSubimage(x, iconMetadata.getStartPosition().y, iconMetadata.getWidth(), iconMetadata.getHeight());
+            animations[index] = getFrame(spritesheet, x, iconMetadata.getStartPosition().y, iconMetadata.getWidth(), iconMetadata.getHeight());
         }
 
         animationsList.add(new Animation(animations, Basic.DEFAULT_ANIMATION_SPEED));
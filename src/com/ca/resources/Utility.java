@@ -27,6 +27,7 @@ import com.ca.errors.resources.ResourceFormatInvalid;
 import com.ca.events.GameMouseHandler;
 import com.ca.events.GameWindowHandler;
 import com.ca.game.CameraManager;
+import com.ca.game.Viewport;
 
 import java.awt.*;
 import java.lang.reflect.Method;
@@ -71,15 +72,13 @@ public class Utility {
     }
 
     /**
-     * Calculates the entity's new position based on the current active {@link Camera} and the current window size.
+     * Calculates the entity's new position based on the current active {@link Camera} and the current window size,
+     * as computed by the {@link Viewport} of the frame. Moving entities are placed between their last two positions.
      * @param state the entity's state.
      * @return a new {@link Position} instance for the entity.
      */
     public static Position getEntityScreenCoords(EntityState state) {
-        Camera c = CameraManager.get(Camera.MAIN_CAMERA);
-
-        return new Position(state.getPosition().x - c.getPosition().x + (GameWindowHandler.getWindowWidth() / (int)(2 * GameMouseHandler.defaultScale) - (c.getSubjectWidth() / 2)),
-                (state.getPosition().y - c.getPosition().y + (GameWindowHandler.getWindowHeight() / (int)(2 * GameMouseHandler.defaultScale) - (c.getSubjectHeight()/ 2))));
+        return new Position(state.getRenderX() + Viewport.getOffsetX(), state.getRenderY() + Viewport.getOffsetY());
     }
 
     /**
@@ -88,11 +87,7 @@ public class Utility {
      * @return a new {@link Position} instance with the new hitbox position.
      */
     public static Position getHitBoxScreenCoords(HitBox hb) {
-
-        Camera c = CameraManager.get(Camera.MAIN_CAMERA);
-
-        return new Position(hb.getX() - c.getPosition().x + (GameWindowHandler.getWindowWidth() / (int)(2 * GameMouseHandler.defaultScale) - (c.getSubjectWidth() / 2)),
-                (hb.getY() - c.getPosition().y + (GameWindowHandler.getWindowHeight() / (int)(2 * GameMouseHandler.defaultScale) - (c.getSubjectHeight()/ 2))));
+        return new Position(hb.getX() + Viewport.getOffsetX(), hb.getY() + Viewport.getOffsetY());
     }
 
     /**
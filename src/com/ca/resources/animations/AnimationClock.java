@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.resources.animations;
+
+import com.ca.constants.Basic;
+
+/**
+ * The time all the animations are played with, counted in simulation ticks. <br>
+ * The simulation advances it once per tick, and the animations never change while they are drawn: the frame of an
+ * animation is computed from the time elapsed since it started (see
+ * {@link com.ca.resources.animations.template.Animation#frameAt(long)}), so it doesn't depend on how many times it
+ * is drawn. The entities keep the tick their animation started in their state, while the animations without a
+ * start (the blocks, the icons) all start at tick {@code 0}: the identical blocks then share the same animation
+ * and move in lockstep without keeping anything of their own. <br>
+ * The renderer draws with the time of the frame published by the simulation, see {@link com.ca.game.WorldSnapshot}.
+ * @since 1.0.00
+ * @author Macaluso Francesco
+ */
+public class AnimationClock {
+
+    /**
+     * How many frames a speed of {@code 1} moves forward in each tick. The speeds of the animations are tuned for
+     * {@link Basic#SPEED_REFERENCE_TPS}, like the other speeds of the game.
+     */
+    private static final double FRAMES_PER_TICK = (double) Basic.SPEED_REFERENCE_TPS / Basic.GAME_TPS;
+
+    /**
+     * The current tick of the simulation.
+     */
+    private static volatile long tick = 0;
+
+    /**
+     * The tick of the frame being drawn.
+     */
+    private static volatile long frameTime = 0;
+
+    /**
+     * Moves all the animations forward by a tick. This has to be called by the simulation thread once per tick.
+     */
+    public static void advance() {
+        tick++;
+    }
+
+    /**
+     * @return the current tick of the simulation, used to start the animations.
+     */
+    public static long getTick() {
+        return tick;
+    }
+
+    /**
+     * Sets the time of the frame that is about to be drawn. This has to be called by the renderer at the beginning
+     * of each frame.
+     * @param time the tick of the frame, see {@link com.ca.game.WorldSnapshot.Frame#getTime()}.
+     */
+    public static void setFrameTime(long time) {
+        frameTime = time;
+    }
+
+    /**
+     * @return the tick of the frame being drawn, used to draw the animations.
+     */
+    public static long getFrameTime() {
+        return frameTime;
+    }
+
+    /**
+     * Converts a duration in ticks in the number of frames played by an animation.
+     * @param ticks the duration.
+     * @param speed the animation's speed.
+     * @return the frames played, with their fractional part.
+     */
+    public static double toFrames(long ticks, double speed) {
+        return ticks * speed * FRAMES_PER_TICK;
+    }
+}
@@ -18,7 +18,6 @@ package com.ca.resources.animations;
 import com.ca.resources.animations.template.Animation;
 import com.ca.resources.animations.template.EntityAnimation;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -36,11 +35,4 @@ public class BlockAnimation extends EntityAnimation {
     public BlockAnimation(List<Animation> animation) {
         super(animation);
     }
-
-    /**
-     * Copy constructor.
-     */
-    public BlockAnimation(BlockAnimation animation) {
-        super(new ArrayList<>(animation.animations));
-    }
 }
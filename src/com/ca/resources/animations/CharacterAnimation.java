@@ -15,7 +15,6 @@
  */
 package com.ca.resources.animations;
 
-import com.ca.constants.Basic;
 import com.ca.constants.Direction;
 import com.ca.resources.animations.template.Animation;
 import com.ca.resources.animations.template.EntityAnimation;
@@ -46,7 +45,6 @@ public class CharacterAnimation extends EntityAnimation {
         super(animations);
 
         this.action = action;
-        this.lastDirection = Basic.DEFAULT_ENTITY_DIRECTION;
     }
 
     /**
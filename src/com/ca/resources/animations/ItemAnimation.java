@@ -15,7 +15,6 @@
  */
 package com.ca.resources.animations;
 
-import com.ca.constants.Basic;
 import com.ca.resources.animations.template.Animation;
 import com.ca.resources.animations.template.EntityAnimation;
 
@@ -43,7 +42,6 @@ public class ItemAnimation extends EntityAnimation {
         super(animations);
 
         this.action = Action.Idling;
-        this.lastDirection = Basic.DEFAULT_ENTITY_DIRECTION;
     }
 
     /**
@@ -16,6 +16,7 @@
 package com.ca.resources.animations.template;
 
 import com.ca.events.animations.AnimationListener;
+import com.ca.resources.animations.AnimationClock;
 
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
@@ -31,10 +32,9 @@ import java.util.List;
 public class Animation {
 
     /**
-     * The animation speed. This value should be between {@link com.ca.constants.Basic#DEFAULT_ANIMATION_SPEED_MIN} and
-     * {@link com.ca.constants.Basic#DEFAULT_ANIMATION_SPEED_MAX}.
+     * The animation speed, the frames played in each tick. This value should be between
+     * {@link com.ca.constants.Basic#DEFAULT_ANIMATION_SPEED_MIN} and {@link com.ca.constants.Basic#DEFAULT_ANIMATION_SPEED_MAX}.
      */
-    protected double currentFrame;
     protected double speed;
     private final BufferedImage[] frames;
 
@@ -102,36 +102,39 @@ public class Animation {
     }
 
 
-    public BufferedImage getCurrentFrame() {
-
-        // Increases the frame counter
-        currentFrame += speed;
-
-        // Checks for animation end
-        if (currentFrame >= frames.length) {
-            if(runOne) {
-                currentFrame -= speed;
-            }
-            else {
-                currentFrame = 0;
-            }
+    /**
+     * Gets the frame shown after the given time. This doesn't change the animation, so the same animation can be
+     * drawn by any number of objects, each one with its own time.
+     * @param ticks the ticks elapsed since the animation started, see {@link AnimationClock}.
+     * @return the index of the frame.
+     */
+    public int frameAt(long ticks) {
 
+        int frame = (int) AnimationClock.toFrames(Math.max(ticks, 0), speed);
 
-            // The animation just ended
-            for(AnimationListener status : listeners) {
-                status.animationEnded(this);
-            }
+        // The animations played once stop on their last frame
+        if (runOne) {
+            return Math.min(frame, frames.length - 1);
         }
 
-        return frames[(int)currentFrame];
+        return frame % frames.length;
     }
 
-
-    public void setCurrentFrame(double currentFrame) {
-        this.currentFrame = currentFrame;
+    /**
+     * @param ticks the ticks elapsed since the animation started, see {@link AnimationClock}.
+     * @return the frame shown after the given time.
+     */
+    public BufferedImage getFrameAt(long ticks) {
+        return frames[frameAt(ticks)];
     }
 
-
+    /**
+     * @param ticks the ticks elapsed since the animation started, see {@link AnimationClock}.
+     * @return {@code true} if all the frames have been played in the given time, otherwise {@code false}.
+     */
+    public boolean hasEnded(long ticks) {
+        return AnimationClock.toFrames(ticks, speed) >= frames.length;
+    }
 
     /**
      * Notifies all the listeners that the animation is ended.
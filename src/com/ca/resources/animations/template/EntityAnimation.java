@@ -18,6 +18,7 @@ package com.ca.resources.animations.template;
 import com.ca.constants.Basic;
 import com.ca.constants.Direction;
 import com.ca.events.animations.AnimationListener;
+import com.ca.resources.animations.AnimationClock;
 
 import java.awt.image.BufferedImage;
 import java.util.List;
@@ -32,15 +33,6 @@ public abstract class EntityAnimation {
 
     protected final List<Animation> animations;
 
-    protected double currentFrame = 0;
-
-    /**
-     * The last direction used to get the animation. This is used to set the {@code currentFrame}
-     * counter to {@code 0} when the user request an animation frame that has a different direction
-     * from the last frame.
-     */
-    protected Direction lastDirection;
-
     public EntityAnimation(List<Animation> animations) {
         this.animations = animations;
     }
@@ -69,44 +61,66 @@ public abstract class EntityAnimation {
     }
 
     /**
-     * Gets the current frame of an animation with the given direction and then goes to the next frame.
+     * Gets the frame of the animation with the given direction shown after the given time. The animation is not
+     * changed, see {@link Animation#frameAt(long)}.
+     * @param d the animation direction requested.
+     * @param ticks the ticks elapsed since the animation started.
+     * @return the animation's frame.
+     */
+    public BufferedImage frameAt(Direction d, long ticks) {
+        return get(d).getFrameAt(ticks);
+    }
+
+    /**
+     * Gets the frame of the animation with the given direction in the frame being drawn, for the animations that
+     * don't keep their start (the blocks and the icons): they all start at tick {@code 0} and move in lockstep.
      * @param d the animation direction requested.
      * @return the current animation's frame.
      */
     public BufferedImage getCurrentFrame(Direction d) {
+        return frameAt(d, AnimationClock.getFrameTime());
+    }
 
-        // If the direction is different from the last one
-        // it resets the animation
-        if (lastDirection != d) {
-            currentFrame = 0;
-        }
+    /**
+     * Checks if the animation with the given direction has been played entirely in the given time.
+     * @param d the animation direction.
+     * @param ticks the ticks elapsed since the animation started.
+     * @return {@code true} if the animation has ended, otherwise {@code false}.
+     */
+    public boolean hasEnded(Direction d, long ticks) {
+        return get(d).hasEnded(ticks);
+    }
+
+    /**
+     * Notifies the listeners of the animation with the given direction that it has ended.
+     * @param d the animation direction.
+     */
+    public void notifyListeners(Direction d) {
+        get(d).notifyListeners();
+    }
+
+    /**
+     * @param d the animation direction.
+     * @return the number of frames of the animation with the given direction.
+     */
+    public int getLength(Direction d) {
 
         if (d.ordinal() >= animations.size()) {
             d = Basic.DEFAULT_ITEM_DIRECTION;
         }
 
-        lastDirection = d;
-
-        Animation animation = animations.get(d.ordinal());
-
-        // Increases the frame counter
-        currentFrame += animation.getSpeed();
+        return animations.get(d.ordinal()).getLength();
+    }
 
-        // Checks for animation's end and notifies all the listeners
-        if (currentFrame >= animation.getLength()) {
-            currentFrame = 0;
+    /**
+     * @return the animation with the given direction, or the one with the default direction if it doesn't exist.
+     */
+    private Animation get(Direction d) {
 
-            animation.notifyListeners();
+        if (d.ordinal() >= animations.size()) {
+            d = Basic.DEFAULT_ITEM_DIRECTION;
         }
 
-        return animation.getFrames()[((int)currentFrame)];
-    }
-
-    public double getC() {
-        return  currentFrame;
-    }
-
-    public BufferedImage peekCurrentFrame() {
-        return animations.get(Basic.DEFAULT_BLOCK_DIRECTION.ordinal()).getFrames()[(int)currentFrame];
+        return animations.get(d.ordinal());
     }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.tests;
+
+import com.ca.constants.Assets;
+import com.ca.constants.Direction;
+import com.ca.entities.controllers.CharacterController;
+import com.ca.entities.controllers.ItemController;
+import com.ca.entities.states.EntityState;
+import com.ca.events.GameKeyHandler;
+import com.ca.events.movements.MoveHandler;
+import com.ca.game.EntityManager;
+import com.ca.game.FootStepManager;
+import com.ca.game.GameLoop;
+import com.ca.game.ItemManager;
+import com.ca.game.SceneManager;
+import com.ca.resources.SpritesheetLoader;
+import com.ca.resources.animations.Action;
+import com.ca.resources.animations.AnimationClock;
+import com.ca.resources.animations.template.EntityAnimation;
+
+import javax.swing.*;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+
+/*
+ * Holds shift and a diagonal for some ticks, and checks that the running animations of the player and of its item
+ * keep playing instead of restarting on every tick. Run it with -Djava.awt.headless=true.
+ */
+public class AnimationTickTest {
+
+    private static final int TICKS = 60;
+
+    public static void main(String[] args) {
+
+        SceneManager.initialize();
+        ItemManager.initialize();
+        EntityManager.initialize();
+        FootStepManager.initialize();
+
+        CharacterController player = EntityManager.subject;
+
+        ItemController sword = new ItemController(Assets.ITEM_SWORD);
+        ItemManager.add(sword);
+        player.equip(sword);
+
+        MoveHandler handler = new MoveHandler(player, null);
+        GameKeyHandler keys = new GameKeyHandler();
+        JPanel source = new JPanel();
+
+        for(int key : new int[] { KeyEvent.VK_SHIFT, KeyEvent.VK_W, KeyEvent.VK_D }) {
+            keys.keyPressed(new KeyEvent(source, KeyEvent.KEY_PRESSED, System.currentTimeMillis(), 0, key, KeyEvent.CHAR_UNDEFINED));
+        }
+
+        // The same animation the player's view plays, see CharacterView
+        EntityAnimation running = SpritesheetLoader.loadCharacterAnimation(Assets.INFO_CASSIUS.texturePath(), Action.Running);
+        running.setSpeed(0.35);
+
+        // The first tick changes the action and the direction
+        GameLoop.tick(handler);
+
+        EntityState state = player.getStateManager();
+        EntityState item = player.getInventory().getItemInUse().getState();
+
+        long start = state.getAnimationStart();
+        long itemStart = item.getAnimationStart();
+
+        BufferedImage first = running.frameAt(player.getDirection(), AnimationClock.getTick() - start);
+        boolean advanced = false;
+
+        for(int i = 0; i < TICKS; i++) {
+            GameLoop.tick(handler);
+
+            check(state.getType() == Action.Running, "the player is not running: " + state.getType());
+
+            // The player's animation only restarts once it has been played entirely
+            if (state.getAnimationStart() != start) {
+                check(running.hasEnded(player.getDirection(), AnimationClock.getTick() - start), "the player's animation restarted at tick " + AnimationClock.getTick());
+                start = state.getAnimationStart();
+                first = running.frameAt(player.getDirection(), 0);
+            }
+
+            check(item.getAnimationStart() == itemStart, "the item's animation restarted at tick " + AnimationClock.getTick());
+
+            advanced |= running.frameAt(player.getDirection(), AnimationClock.getTick() - start) != first;
+        }
+
+        check(advanced, "the player's animation never left its first frame");
+
+        // Releasing a key changes the direction, so the animation starts again
+        keys.keyReleased(new KeyEvent(source, KeyEvent.KEY_RELEASED, System.currentTimeMillis(), 0, KeyEvent.VK_D, KeyEvent.CHAR_UNDEFINED));
+        GameLoop.tick(handler);
+
+        check(player.getDirection() == Direction.UP, "the player is not facing up: " + player.getDirection());
+        check(state.getAnimationStart() == AnimationClock.getTick(), "the player's animation didn't restart");
+        check(item.getAnimationStart() == AnimationClock.getTick(), "the item's animation didn't restart");
+
+        System.out.println("The running animations kept playing for " + TICKS + " ticks.");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            System.err.println("FAILED: " + message);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2022 Macaluso Francesco
+ *
+ * License under the Apache Licence, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the Licence at:
+ *
+ * - http://www.apache.org/licences/LINCESE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS: BASIS,
+ * WITHOUT A WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permission and
+ * limitations under the Licence.
+ */
+package com.ca.tests;
+
+import com.ca.constants.Basic;
+import com.ca.events.GameKeyHandler;
+import com.ca.events.movements.MoveHandler;
+
+import javax.swing.*;
+import java.awt.event.KeyEvent;
+
+/*
+ * Taps the inventory key once and runs the input channel of the game loop a few times before the simulation tick,
+ * checking that the shortcut is toggled once and that the simulation still sees the tap. Run it with
+ * -Djava.awt.headless=true.
+ */
+public class ShortcutStrokeTest {
+
+    public static void main(String[] args) throws InterruptedException {
+
+        MoveHandler handler = new MoveHandler(null, null);
+        GameKeyHandler keys = new GameKeyHandler();
+        JPanel source = new JPanel();
+
+        keys.keyPressed(new KeyEvent(source, KeyEvent.KEY_PRESSED, System.currentTimeMillis(), 0, KeyEvent.VK_I, KeyEvent.CHAR_UNDEFINED));
+        keys.keyReleased(new KeyEvent(source, KeyEvent.KEY_RELEASED, System.currentTimeMillis(), 0, KeyEvent.VK_I, KeyEvent.CHAR_UNDEFINED));
+
+        inputTick(handler);
+        check(MoveHandler.inventoryFlag, "the inventory didn't open");
+
+        // The input channel runs twice as often as the simulation, and the delay of the shortcut is over
+        Thread.sleep(Basic.DEFAULT_INVENTORY_DELAY + 50);
+        inputTick(handler);
+
+        check(MoveHandler.inventoryFlag, "the inventory has been toggled twice by a single tap");
+        check(!GameKeyHandler.isShortcutPressed((char) KeyEvent.VK_I), "the shortcut has not been consumed");
+        check(GameKeyHandler.isKeyPressed((char) KeyEvent.VK_I), "the simulation lost the tap");
+
+        // The simulation tick
+        GameKeyHandler.poll();
+        GameKeyHandler.clearStrokes();
+
+        check(!GameKeyHandler.isKeyPressed((char) KeyEvent.VK_I), "the simulation didn't consume the tap");
+
+        System.out.println("The tapped shortcut has been toggled once.");
+    }
+
+    /**
+     * The same steps of the input channel of the game loop, see GameLoop#run().
+     */
+    private static void inputTick(MoveHandler handler) {
+        GameKeyHandler.poll();
+        handler.handleShortcuts();
+        GameKeyHandler.clearShortcutStrokes();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            System.err.println("FAILED: " + message);
+            System.exit(1);
+        }
+    }
+}
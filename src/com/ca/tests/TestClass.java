@@ -15,7 +15,7 @@
  */
 package com.ca.tests;
 
-import com.ca.constants.Clock;
+import com.ca.game.TickScheduler;
 import com.ca.resources.SpritesheetLoader;
 
 import java.awt.*;
@@ -104,8 +104,10 @@ public class TestClass {
         long curTime = System.currentTimeMillis();
         long lastTime = curTime;
 
+        TickScheduler.Channel clock = TickScheduler.get(TickScheduler.RENDER);
+
         while (true) {
-            while (Clock.tick()) {
+            while (clock.await()) {
                 try {
                     // count Frames per second...
                     lastTime = curTime;
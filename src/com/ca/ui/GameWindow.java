@@ -22,10 +22,13 @@ import com.ca.events.GameKeyHandler;
 import com.ca.events.GameMouseHandler;
 import com.ca.game.*;
 import com.ca.gui.Renderer;
+import com.ca.resources.ResourceLoader;
+import com.ca.resources.SpritesheetLoader;
 import com.ca.sounds.AudioManager;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferStrategy;
 
 /**
  * This class is the main game panel implementation which draws the whole game on screen.
@@ -37,12 +40,20 @@ public class GameWindow extends JPanel {
 
     private final Renderer renderer = new Renderer();
 
+    /**
+     * The surface drawn by the game thread when {@link Basic#ACTIVE_RENDERING} is enabled, otherwise {@code null}.
+     */
+    private final Canvas canvas;
+
     static {
         SceneManager.initialize();
         ItemManager.initialize();
         EntityManager.initialize();
         AudioManager.initialize();
         FootStepManager.initialize();
+
+        SpritesheetLoader.logConversionReport();
+        ResourceLoader.logCacheReport();
     }
 
     public GameWindow() {
@@ -56,6 +67,21 @@ public class GameWindow extends JPanel {
         // Adds the entity to the key listeners, this is the only entity that has to move with the key inputs.
         this.addKeyListener(new GameKeyHandler());
         this.addFocusListener(new GameFocusHandler());
+
+        if (Basic.ACTIVE_RENDERING) {
+            canvas = new Canvas();
+
+            // The panel keeps the focus, so the key handlers keep working
+            canvas.setIgnoreRepaint(true);
+            canvas.setFocusable(false);
+            canvas.setBackground(Color.black);
+
+            this.setLayout(new BorderLayout());
+            this.add(canvas, BorderLayout.CENTER);
+        }
+        else {
+            canvas = null;
+        }
     }
 
     /**
@@ -74,29 +100,105 @@ public class GameWindow extends JPanel {
 
     static int fps;
 
+    /**
+     * @return {@code true} if the frames are drawn by the game thread with {@link GameWindow#renderFrame()},
+     * {@code false} if they are drawn by Swing.
+     */
+    public boolean isActiveRendering() {
+        return canvas != null;
+    }
+
+    /**
+     * Draws a frame on the canvas back buffer and shows it (active rendering). This has to be called by the game
+     * thread, once per frame. <br>
+     * The buffer strategy is created the first time the canvas is on screen, with page flipping if the system
+     * supports it. If the buffer contents are lost while drawing, the frame is drawn again.
+     */
+    public void renderFrame() {
+
+        if (canvas == null || !canvas.isDisplayable() || canvas.getWidth() <= 0 || canvas.getHeight() <= 0) {
+            return;
+        }
+
+        BufferStrategy strategy = canvas.getBufferStrategy();
+
+        if (strategy == null) {
+            createBufferStrategy();
+            return;
+        }
+
+        try {
+            do {
+                do {
+                    Graphics g = strategy.getDrawGraphics();
+
+                    try {
+                        g.setColor(getBackground());
+                        g.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+                        drawFrame(g);
+                    }
+                    finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+
+                strategy.show();
+            } while (strategy.contentsLost());
+
+            // Flushes the drawing commands on systems that buffer them (Linux)
+            Toolkit.getDefaultToolkit().sync();
+        }
+        catch (IllegalStateException e) {
+            // The buffers have been destroyed (i.e. the window was closed or hidden), they are created again
+            Logger.log(Logger.WARNING, "The game buffers have been lost: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the double buffer of the canvas, trying page flipping first.
+     */
+    private void createBufferStrategy() {
+        try {
+            canvas.createBufferStrategy(2, new BufferCapabilities(new ImageCapabilities(true), new ImageCapabilities(true),
+                    BufferCapabilities.FlipContents.UNDEFINED));
+        }
+        catch (AWTException e) {
+            Logger.log(Logger.MESSAGE, "Page flipping is not available, the game will use a blitted back buffer.");
+
+            canvas.createBufferStrategy(2);
+        }
+    }
+
     @Override
     public void paintComponent(Graphics g) {
 
-        // Scales the game based on the default scaling factors
-        ((Graphics2D)g).scale(GameMouseHandler.defaultScale, GameMouseHandler.defaultScale);
-
         // Renders the window
         super.paintComponent(g);
 
-        // Renders everything of the game
-        renderer.render(g);
+        // With active rendering the canvas covers the panel, and it's drawn by the game thread
+        if (canvas == null) {
+            drawFrame(g);
+        }
+    }
+
+    /**
+     * Draws the whole game and updates the frame counter.
+     * @param g the graphics to draw on.
+     */
+    private void drawFrame(Graphics g) {
 
-        FootStepManager.removeOldStep();
+        // Scales the game based on the default scaling factors
+        ((Graphics2D)g).scale(GameMouseHandler.defaultScale, GameMouseHandler.defaultScale);
 
-        // Handles the bot movement
-        if(Basic.BOT_FLAG) {
-            EntityManager.moveBot();
-        }
+        // Renders everything of the game
+        renderer.render(g);
 
         // Gives you access once every second
         if (System.currentTimeMillis() - time >= 1000) {
             if (Basic.SHOW_FPS) {
-                Logger.log(Logger.DEBUG, "FPS: " + frame);
+                Logger.log(Logger.DEBUG, "FPS: " + frame + ", skipped ticks: " + TickScheduler.get(TickScheduler.SIMULATION).getMissed()
+                        + ", input latency: " + GameKeyHandler.getLatency() / 1000 + "us");
                 fps = frame;
             }
 